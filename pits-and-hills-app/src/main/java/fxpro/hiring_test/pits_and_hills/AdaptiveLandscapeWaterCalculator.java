@@ -0,0 +1,131 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+/**
+ * Routes each landscape to the scalar or the vector engine by its length.
+ * Both engines are linear in the length and independent of the heights, so
+ * the length is the only input characteristic that matters: the vector engine
+ * pays a fixed cost for its three passes and masks, which only pays off from
+ * some length on. That length is host specific and is found by
+ * {@link #calibrate(LandscapeWaterCalculator, LandscapeWaterCalculator)},
+ * which may run in the background while the calculator is already in use.
+ */
+final class AdaptiveLandscapeWaterCalculator implements LandscapeWaterCalculator {
+
+  static final int MIN_CALIBRATED_LENGTH = 8;
+  static final int MAX_CALIBRATED_LENGTH = 4096;
+  static final int WARMUP_CALLS = 20_000;
+  static final int CALIBRATION_ROUNDS = 5;
+  static final int CALIBRATION_COLUMNS = 1 << 14;
+
+  private final LandscapeWaterCalculator scalar;
+  private final LandscapeWaterCalculator vector;
+  private volatile int vectorThreshold;
+
+  /**
+   * @param vectorThreshold landscapes of at least this length go to the vector
+   *                        engine
+   */
+  AdaptiveLandscapeWaterCalculator(final LandscapeWaterCalculator scalar, final LandscapeWaterCalculator vector,
+      final int vectorThreshold) {
+    if (vectorThreshold < 0)
+      throw new IllegalArgumentException("Wrong vector threshold");
+    this.scalar = scalar;
+    this.vector = vector;
+    this.vectorThreshold = vectorThreshold;
+  }
+
+  public long calculateWaterAmount(final int[] landscape) {
+    return (landscape.length < vectorThreshold ? scalar : vector).calculateWaterAmount(landscape);
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+    return (length < vectorThreshold ? scalar : vector).calculateWaterAmount(landscape, offset, length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final short[] landscape) {
+    return (landscape.length < vectorThreshold ? scalar : vector).calculateWaterAmount(landscape);
+  }
+
+  @Override
+  public long calculateWaterAmount(final byte[] landscape) {
+    return (landscape.length < vectorThreshold ? scalar : vector).calculateWaterAmount(landscape);
+  }
+
+  @Override
+  public long calculateWaterAmount(final IntBuffer landscape, final int offset, final int length) {
+    return (length < vectorThreshold ? scalar : vector).calculateWaterAmount(landscape, offset, length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final ByteBuffer landscape, final int offset, final int length) {
+    return (length < vectorThreshold ? scalar : vector).calculateWaterAmount(landscape, offset, length);
+  }
+
+  int vectorThreshold() {
+    return vectorThreshold;
+  }
+
+  /**
+   * Calibrates on a daemon thread, so neither the caller nor the first
+   * landscapes wait for it; they use the current threshold meanwhile.
+   */
+  void calibrateInBackground() {
+    final Thread thread = new Thread(() -> vectorThreshold = calibrate(scalar, vector),
+        "landscape-water-calibration");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Times both engines on random landscapes of doubling lengths, after
+   * warming them up so both are compiled.
+   *
+   * @return shortest length from which the vector engine stays faster, or
+   *         {@link Integer#MAX_VALUE} if it never does
+   */
+  static int calibrate(final LandscapeWaterCalculator scalar, final LandscapeWaterCalculator vector) {
+    final Random random = new Random(42);
+    final int[][] landscapes = new int[Integer.numberOfTrailingZeros(MAX_CALIBRATED_LENGTH / MIN_CALIBRATED_LENGTH)
+        + 1][];
+    for (int i = 0; i < landscapes.length; i++) {
+      landscapes[i] = new int[MIN_CALIBRATED_LENGTH << i];
+      for (int column = 0; column < landscapes[i].length; column++)
+        landscapes[i][column] = random.nextInt(LandscapeWaterCalculatorImplTwoPointers.MAX_LANDSCAPE_HEIGHT + 1);
+    }
+
+    long sink = 0;
+    for (int call = 0; call < WARMUP_CALLS; call++) {
+      final int[] landscape = landscapes[call % landscapes.length];
+      sink += scalar.calculateWaterAmount(landscape) + vector.calculateWaterAmount(landscape);
+    }
+
+    int result = Integer.MAX_VALUE;
+    for (int i = landscapes.length - 1; i >= 0; i--) {
+      final int[] landscape = landscapes[i];
+      final int calls = CALIBRATION_COLUMNS / landscape.length;
+      long scalarNanos = Long.MAX_VALUE;
+      long vectorNanos = Long.MAX_VALUE;
+      for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+        long start = System.nanoTime();
+        for (int call = 0; call < calls; call++)
+          sink += scalar.calculateWaterAmount(landscape);
+        scalarNanos = Math.min(scalarNanos, System.nanoTime() - start);
+        start = System.nanoTime();
+        for (int call = 0; call < calls; call++)
+          sink += vector.calculateWaterAmount(landscape);
+        vectorNanos = Math.min(vectorNanos, System.nanoTime() - start);
+      }
+      if (vectorNanos >= scalarNanos)
+        break;
+      result = landscape.length;
+    }
+    // keeps the calls from being eliminated; the amounts are never negative
+    return sink < 0 ? Integer.MAX_VALUE : result;
+  }
+}
@@ -0,0 +1,542 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator remembering the amounts of recently calculated landscapes.
+ * <p>
+ * Landscapes are keyed by a 64-bit hash of their length and heights. A hit is
+ * confirmed by comparing the heights with the copy kept in the cache, so a
+ * hash collision is never returned as a result. The cache is split into
+ * stripes selected by the hash, each locked on its own and holding a bounded
+ * LRU of primitive arrays: a chained hash index and a doubly linked recency
+ * list over slots, so a hit allocates nothing. The slots are allocated as the
+ * stripe fills, {@link #retainedBytes()} counts them along with the copies.
+ * Invalid landscapes are never cached, the delegate throws for them on every
+ * call.
+ */
+public class CachingLandscapeWaterCalculator implements LandscapeWaterCalculator {
+
+  static final int DEFAULT_STRIPES = 16;
+
+  /**
+   * Bytes retained per allocated slot: hash, amount, reference to the copy,
+   * index and recency links, and up to two buckets.
+   */
+  public static final int ENTRY_BYTES = 3 * Long.BYTES + 5 * Integer.BYTES;
+
+  private static final int ARRAY_HEADER_BYTES = 16;
+
+  private final LandscapeWaterCalculator delegate;
+  private final Stripe[] stripes;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public CachingLandscapeWaterCalculator(final LandscapeWaterCalculator delegate, final int maxEntries) {
+    this(delegate, maxEntries, DEFAULT_STRIPES);
+  }
+
+  /**
+   * @param delegate   calculates the landscapes missing in the cache
+   * @param maxEntries max number of cached landscapes
+   * @param stripes    number of independently locked parts of the cache,
+   *                   rounded up to a power of two
+   */
+  public CachingLandscapeWaterCalculator(final LandscapeWaterCalculator delegate, final int maxEntries,
+      final int stripes) {
+    this(delegate, maxEntries, stripes, Long.MAX_VALUE);
+  }
+
+  private CachingLandscapeWaterCalculator(final LandscapeWaterCalculator delegate, final int maxEntries,
+      final int stripes, final long maxBytes) {
+    if (maxEntries < 1)
+      throw new IllegalArgumentException("Wrong max entries");
+    if (stripes < 1)
+      throw new IllegalArgumentException("Wrong stripes");
+    this.delegate = delegate;
+    int count = Integer.highestOneBit(stripes);
+    if (count < stripes)
+      count <<= 1;
+    count = Math.min(count, Integer.highestOneBit(maxEntries));
+    this.stripes = new Stripe[count];
+    for (int i = 0; i < count; i++)
+      this.stripes[i] = new Stripe(maxEntries / count + (i < maxEntries % count ? 1 : 0),
+          maxBytes == Long.MAX_VALUE ? maxBytes : maxBytes / count);
+  }
+
+  public static CachingLandscapeWaterCalculator withMaxBytes(final LandscapeWaterCalculator delegate,
+      final long maxBytes) {
+    return withMaxBytes(delegate, maxBytes, DEFAULT_STRIPES);
+  }
+
+  /**
+   * Every stripe gets an equal share of the bytes, a landscape whose entry
+   * does not fit the share is calculated but not cached.
+   *
+   * @param delegate calculates the landscapes missing in the cache
+   * @param maxBytes max {@link #retainedBytes()}, see {@link #entryBytes(int)}
+   * @param stripes  number of independently locked parts of the cache,
+   *                 rounded up to a power of two
+   * @return cache bounded by retained memory rather than by entries
+   */
+  public static CachingLandscapeWaterCalculator withMaxBytes(final LandscapeWaterCalculator delegate,
+      final long maxBytes, final int stripes) {
+    final long maxEntries = maxBytes / entryBytes(0);
+    if (maxEntries < 1)
+      throw new IllegalArgumentException("Wrong max bytes");
+    return new CachingLandscapeWaterCalculator(delegate, (int) Math.min(Integer.MAX_VALUE / 2, maxEntries),
+        stripes, maxBytes);
+  }
+
+  /**
+   * @return bytes retained by the entry of a landscape of the given length:
+   *         its slot and the copy of its heights
+   */
+  public static long entryBytes(final int length) {
+    return ENTRY_BYTES + copyBytes(length);
+  }
+
+  public long calculateWaterAmount(final int[] landscape) {
+    long hash = hashSeed(landscape.length);
+    for (final int height : landscape)
+      hash = hash(hash, height);
+    final long cached = cached(hash, Heights.INTS, landscape, 0, landscape.length);
+    return cached >= 0 ? cached
+        : cache(hash, Heights.INTS, landscape, 0, landscape.length, delegate.calculateWaterAmount(landscape));
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+    LandscapeSweeps.checkRange(offset, length, landscape.length);
+    long hash = hashSeed(length);
+    for (int column = offset, end = offset + length; column < end; column++)
+      hash = hash(hash, landscape[column]);
+    final long cached = cached(hash, Heights.INTS, landscape, offset, length);
+    return cached >= 0 ? cached
+        : cache(hash, Heights.INTS, landscape, offset, length,
+            delegate.calculateWaterAmount(landscape, offset, length));
+  }
+
+  /**
+   * Shares the entries of the {@code int} landscapes of the same heights.
+   */
+  @Override
+  public long calculateWaterAmount(final short[] landscape) {
+    long hash = hashSeed(landscape.length);
+    for (final short height : landscape)
+      hash = hash(hash, height);
+    final long cached = cached(hash, Heights.SHORTS, landscape, 0, landscape.length);
+    return cached >= 0 ? cached
+        : cache(hash, Heights.SHORTS, landscape, 0, landscape.length, delegate.calculateWaterAmount(landscape));
+  }
+
+  /**
+   * Shares the entries of the {@code int} landscapes of the same heights.
+   */
+  @Override
+  public long calculateWaterAmount(final byte[] landscape) {
+    long hash = hashSeed(landscape.length);
+    for (final byte height : landscape)
+      hash = hash(hash, height & 0xFF);
+    final long cached = cached(hash, Heights.BYTES, landscape, 0, landscape.length);
+    return cached >= 0 ? cached
+        : cache(hash, Heights.BYTES, landscape, 0, landscape.length, delegate.calculateWaterAmount(landscape));
+  }
+
+  @Override
+  public long calculateWaterAmount(final IntBuffer landscape, final int offset, final int length) {
+    LandscapeSweeps.checkRange(offset, length, landscape.limit());
+    long hash = hashSeed(length);
+    for (int index = offset, end = offset + length; index < end; index++)
+      hash = hash(hash, landscape.get(index));
+    final long cached = cached(hash, Heights.INT_BUFFER, landscape, offset, length);
+    return cached >= 0 ? cached
+        : cache(hash, Heights.INT_BUFFER, landscape, offset, length,
+            delegate.calculateWaterAmount(landscape, offset, length));
+  }
+
+  @Override
+  public long calculateWaterAmount(final ByteBuffer landscape, final int offset, final int length) {
+    LandscapeSweeps.checkRange(offset, (long) length * Integer.BYTES, landscape.limit());
+    long hash = hashSeed(length);
+    for (int index = offset, end = offset + length * Integer.BYTES; index < end; index += Integer.BYTES)
+      hash = hash(hash, landscape.getInt(index));
+    final long cached = cached(hash, Heights.BYTE_BUFFER, landscape, offset, length);
+    return cached >= 0 ? cached
+        : cache(hash, Heights.BYTE_BUFFER, landscape, offset, length,
+            delegate.calculateWaterAmount(landscape, offset, length));
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  public int size() {
+    int result = 0;
+    for (final Stripe stripe : stripes)
+      result += stripe.size();
+    return result;
+  }
+
+  /**
+   * @return memory retained by the slots allocated so far and by the copies
+   *         of the cached landscapes
+   */
+  public long retainedBytes() {
+    long result = 0;
+    for (final Stripe stripe : stripes)
+      result += stripe.retainedBytes();
+    return result;
+  }
+
+  /**
+   * @return amount cached for the heights, -1 if missing
+   */
+  private long cached(final long hash, final Heights heights, final Object landscape, final int offset,
+      final int length) {
+    final long mixed = murmurMix(hash);
+    final long result = stripe(mixed).get(mixed, heights, landscape, offset, length);
+    if (result >= 0)
+      hits.increment();
+    else
+      misses.increment();
+    return result;
+  }
+
+  /**
+   * @return the amount
+   */
+  private long cache(final long hash, final Heights heights, final Object landscape, final int offset,
+      final int length, final long amount) {
+    final long mixed = murmurMix(hash);
+    final Stripe stripe = stripe(mixed);
+    if (entryBytes(length) <= stripe.maxBytes)
+      evictions.add(stripe.put(mixed, heights.copy(landscape, offset, length), amount));
+    return amount;
+  }
+
+  private Stripe stripe(final long hash) {
+    return stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+  }
+
+  private static long copyBytes(final int length) {
+    return ARRAY_HEADER_BYTES + ((long) length * Integer.BYTES + 7 & ~7L);
+  }
+
+  private static long hashSeed(final int length) {
+    return 0x9E3779B97F4A7C15L ^ length;
+  }
+
+  private static long hash(final long hash, final int height) {
+    return Long.rotateLeft(hash ^ height * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+  }
+
+  /** MurmurHash3 finalizer. */
+  private static long murmurMix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    return hash ^ hash >>> 33;
+  }
+
+  /**
+   * Reads the heights of every overload, the copies hold them as {@code int}.
+   */
+  private enum Heights {
+
+    INTS {
+      @Override
+      int[] copy(final Object landscape, final int offset, final int length) {
+        return Arrays.copyOfRange((int[]) landscape, offset, offset + length);
+      }
+
+      @Override
+      boolean matches(final int[] copy, final Object landscape, final int offset) {
+        final int[] heights = (int[]) landscape;
+        for (int i = 0; i < copy.length; i++)
+          if (copy[i] != heights[offset + i])
+            return false;
+        return true;
+      }
+    },
+
+    SHORTS {
+      @Override
+      int[] copy(final Object landscape, final int offset, final int length) {
+        final short[] heights = (short[]) landscape;
+        final int[] copy = new int[length];
+        for (int i = 0; i < length; i++)
+          copy[i] = heights[offset + i];
+        return copy;
+      }
+
+      @Override
+      boolean matches(final int[] copy, final Object landscape, final int offset) {
+        final short[] heights = (short[]) landscape;
+        for (int i = 0; i < copy.length; i++)
+          if (copy[i] != heights[offset + i])
+            return false;
+        return true;
+      }
+    },
+
+    BYTES {
+      @Override
+      int[] copy(final Object landscape, final int offset, final int length) {
+        final byte[] heights = (byte[]) landscape;
+        final int[] copy = new int[length];
+        for (int i = 0; i < length; i++)
+          copy[i] = heights[offset + i] & 0xFF;
+        return copy;
+      }
+
+      @Override
+      boolean matches(final int[] copy, final Object landscape, final int offset) {
+        final byte[] heights = (byte[]) landscape;
+        for (int i = 0; i < copy.length; i++)
+          if (copy[i] != (heights[offset + i] & 0xFF))
+            return false;
+        return true;
+      }
+    },
+
+    INT_BUFFER {
+      @Override
+      int[] copy(final Object landscape, final int offset, final int length) {
+        final IntBuffer heights = (IntBuffer) landscape;
+        final int[] copy = new int[length];
+        for (int i = 0; i < length; i++)
+          copy[i] = heights.get(offset + i);
+        return copy;
+      }
+
+      @Override
+      boolean matches(final int[] copy, final Object landscape, final int offset) {
+        final IntBuffer heights = (IntBuffer) landscape;
+        for (int i = 0; i < copy.length; i++)
+          if (copy[i] != heights.get(offset + i))
+            return false;
+        return true;
+      }
+    },
+
+    /** Offset in bytes. */
+    BYTE_BUFFER {
+      @Override
+      int[] copy(final Object landscape, final int offset, final int length) {
+        final ByteBuffer heights = (ByteBuffer) landscape;
+        final int[] copy = new int[length];
+        for (int i = 0; i < length; i++)
+          copy[i] = heights.getInt(offset + i * Integer.BYTES);
+        return copy;
+      }
+
+      @Override
+      boolean matches(final int[] copy, final Object landscape, final int offset) {
+        final ByteBuffer heights = (ByteBuffer) landscape;
+        for (int i = 0; i < copy.length; i++)
+          if (copy[i] != heights.getInt(offset + i * Integer.BYTES))
+            return false;
+        return true;
+      }
+    };
+
+    abstract int[] copy(final Object landscape, final int offset, final int length);
+
+    /**
+     * @return whether the heights from the offset equal the copy, as long as
+     *         the copy
+     */
+    abstract boolean matches(final int[] copy, final Object landscape, final int offset);
+  }
+
+  private static class Stripe {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_SLOTS = 16;
+
+    final int capacity;
+    final long maxBytes;
+    long[] hashes;
+    long[] amounts;
+    int[][] copies;
+    int[] chain;
+    int[] older;
+    int[] newer;
+    int[] buckets;
+    long copyBytes;
+    int size;
+    /** Slots ever used, the free ones among them are chained from {@link #free}. */
+    int used;
+    int free = NONE;
+    int newest = NONE;
+    int oldest = NONE;
+
+    Stripe(final int capacity, final long maxBytes) {
+      this.capacity = capacity;
+      this.maxBytes = maxBytes;
+      final int slots = Math.min(capacity, INITIAL_SLOTS);
+      hashes = new long[slots];
+      amounts = new long[slots];
+      copies = new int[slots][];
+      chain = new int[slots];
+      older = new int[slots];
+      newer = new int[slots];
+      buckets = buckets(slots);
+    }
+
+    synchronized long get(final long hash, final Heights heights, final Object landscape, final int offset,
+        final int length) {
+      final int slot = find(hash, heights, landscape, offset, length);
+      if (slot == NONE)
+        return -1;
+      unlink(slot);
+      linkNewest(slot);
+      return amounts[slot];
+    }
+
+    /**
+     * @return number of entries evicted
+     */
+    synchronized int put(final long hash, final int[] copy, final long amount) {
+      if (find(hash, Heights.INTS, copy, 0, copy.length) != NONE)
+        return 0;
+
+      final long bytes = copyBytes(copy.length);
+      if ((long) hashes.length * ENTRY_BYTES + bytes > maxBytes)
+        return 0;
+      int evicted = 0;
+      while (size == capacity || (long) slotsFor(used + 1) * ENTRY_BYTES + copyBytes + bytes > maxBytes) {
+        evictOldest();
+        evicted++;
+      }
+
+      final int slot;
+      if (free != NONE) {
+        slot = free;
+        free = chain[slot];
+      } else {
+        if (used == hashes.length)
+          grow(slotsFor(used + 1));
+        slot = used++;
+      }
+
+      hashes[slot] = hash;
+      amounts[slot] = amount;
+      copies[slot] = copy;
+      copyBytes += bytes;
+      size++;
+      final int bucket = (int) hash & (buckets.length - 1);
+      chain[slot] = buckets[bucket];
+      buckets[bucket] = slot;
+      linkNewest(slot);
+      return evicted;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    synchronized long retainedBytes() {
+      return (long) hashes.length * ENTRY_BYTES + copyBytes;
+    }
+
+    /**
+     * @return slots to allocate for the slots in use, none beyond the
+     *         allocated ones while any is free
+     */
+    private int slotsFor(final int slots) {
+      if (free != NONE || slots <= hashes.length)
+        return hashes.length;
+      return (int) Math.min(capacity, Math.max(slots, 2L * hashes.length));
+    }
+
+    private void grow(final int slots) {
+      hashes = Arrays.copyOf(hashes, slots);
+      amounts = Arrays.copyOf(amounts, slots);
+      copies = Arrays.copyOf(copies, slots);
+      chain = Arrays.copyOf(chain, slots);
+      older = Arrays.copyOf(older, slots);
+      newer = Arrays.copyOf(newer, slots);
+      buckets = buckets(slots);
+      // no slot is free while growing, so every used one is indexed again
+      for (int slot = 0; slot < used; slot++) {
+        final int bucket = (int) hashes[slot] & (buckets.length - 1);
+        chain[slot] = buckets[bucket];
+        buckets[bucket] = slot;
+      }
+    }
+
+    private int find(final long hash, final Heights heights, final Object landscape, final int offset,
+        final int length) {
+      for (int slot = buckets[(int) hash & (buckets.length - 1)]; slot != NONE; slot = chain[slot])
+        if (hashes[slot] == hash && copies[slot].length == length
+            && heights.matches(copies[slot], landscape, offset))
+          return slot;
+      return NONE;
+    }
+
+    private void evictOldest() {
+      final int slot = oldest;
+      unlink(slot);
+      unindex(slot);
+      copyBytes -= copyBytes(copies[slot].length);
+      copies[slot] = null;
+      chain[slot] = free;
+      free = slot;
+      size--;
+    }
+
+    private void unindex(final int slot) {
+      final int bucket = (int) hashes[slot] & (buckets.length - 1);
+      if (buckets[bucket] == slot) {
+        buckets[bucket] = chain[slot];
+        return;
+      }
+      int previous = buckets[bucket];
+      while (chain[previous] != slot)
+        previous = chain[previous];
+      chain[previous] = chain[slot];
+    }
+
+    private void unlink(final int slot) {
+      if (older[slot] != NONE)
+        newer[older[slot]] = newer[slot];
+      else
+        oldest = newer[slot];
+      if (newer[slot] != NONE)
+        older[newer[slot]] = older[slot];
+      else
+        newest = older[slot];
+    }
+
+    private void linkNewest(final int slot) {
+      older[slot] = newest;
+      newer[slot] = NONE;
+      if (newest != NONE)
+        newer[newest] = slot;
+      else
+        oldest = slot;
+      newest = slot;
+    }
+
+    private static int[] buckets(final int slots) {
+      final int[] result = new int[Integer.highestOneBit(slots) << 1];
+      Arrays.fill(result, NONE);
+      return result;
+    }
+  }
+}
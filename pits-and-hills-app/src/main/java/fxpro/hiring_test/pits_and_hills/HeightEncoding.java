@@ -0,0 +1,42 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encodings of landscape heights. Byte order is up to the buffer the
+ * heights are read from.
+ */
+public enum HeightEncoding {
+
+  /** Signed 16-bit heights, enough for the bounded calculators. */
+  INT16(Short.BYTES) {
+    @Override
+    int height(final ByteBuffer buffer, final int index) {
+      return buffer.getShort(index);
+    }
+  },
+
+  /** Signed 32-bit heights. */
+  INT32(Integer.BYTES) {
+    @Override
+    int height(final ByteBuffer buffer, final int index) {
+      return buffer.getInt(index);
+    }
+  };
+
+  private final int bytes;
+
+  HeightEncoding(final int bytes) {
+    this.bytes = bytes;
+  }
+
+  public int bytes() {
+    return bytes;
+  }
+
+  /**
+   * Reads a height at the given absolute byte index, the buffer position is
+   * left untouched.
+   */
+  abstract int height(final ByteBuffer buffer, final int index);
+}
@@ -0,0 +1,90 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Decorator recording every call into {@link LandscapeWaterMetrics}: the
+ * latency and landscape length of accepted calls and the count of calls
+ * rejected with {@link IllegalArgumentException}. Adds two
+ * {@link System#nanoTime()} reads and a few atomic increments per call, and
+ * allocates nothing, so it may stay enabled in production.
+ */
+public class InstrumentedLandscapeWaterCalculator implements LandscapeWaterCalculator {
+
+  private static final Call INTS = (delegate, landscape, offset, length) ->
+      delegate.calculateWaterAmount((int[]) landscape);
+  private static final Call RANGE = (delegate, landscape, offset, length) ->
+      delegate.calculateWaterAmount((int[]) landscape, offset, length);
+  private static final Call SHORTS = (delegate, landscape, offset, length) ->
+      delegate.calculateWaterAmount((short[]) landscape);
+  private static final Call BYTES = (delegate, landscape, offset, length) ->
+      delegate.calculateWaterAmount((byte[]) landscape);
+  private static final Call INT_BUFFER = (delegate, landscape, offset, length) ->
+      delegate.calculateWaterAmount((IntBuffer) landscape, offset, length);
+  private static final Call BYTE_BUFFER = (delegate, landscape, offset, length) ->
+      delegate.calculateWaterAmount((ByteBuffer) landscape, offset, length);
+
+  private final LandscapeWaterCalculator delegate;
+  private final LandscapeWaterMetrics metrics;
+
+  public InstrumentedLandscapeWaterCalculator(final LandscapeWaterCalculator delegate,
+      final LandscapeWaterMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  public long calculateWaterAmount(final int[] landscape) {
+    return record(INTS, landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+    return record(RANGE, landscape, offset, length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final short[] landscape) {
+    return record(SHORTS, landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final byte[] landscape) {
+    return record(BYTES, landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final IntBuffer landscape, final int offset, final int length) {
+    return record(INT_BUFFER, landscape, offset, length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final ByteBuffer landscape, final int offset, final int length) {
+    return record(BYTE_BUFFER, landscape, offset, length);
+  }
+
+  public LandscapeWaterMetrics metrics() {
+    return metrics;
+  }
+
+  private long record(final Call call, final Object landscape, final int offset, final int length) {
+    final long start = System.nanoTime();
+    try {
+      final long result = call.calculate(delegate, landscape, offset, length);
+      metrics.recordCall(length, System.nanoTime() - start);
+      return result;
+    } catch (IllegalArgumentException e) {
+      metrics.recordRejected();
+      throw e;
+    }
+  }
+
+  /**
+   * Overload of the delegate, kept in a constant so that a call allocates
+   * nothing.
+   */
+  @FunctionalInterface
+  private interface Call {
+    long calculate(LandscapeWaterCalculator delegate, Object landscape, int offset, int length);
+  }
+}
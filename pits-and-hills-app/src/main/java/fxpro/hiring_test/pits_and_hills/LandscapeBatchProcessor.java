@@ -0,0 +1,132 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command-line processor of batch files written by
+ * {@link LandscapeBatchWriter}. Every record is calculated by the chosen
+ * calculator and its water amount written to the output file as a
+ * little-endian {@code int64}, in the order of the records. Both files are
+ * streamed through {@link FileChannel}s and reused direct buffers, and the
+ * heights of a record are decoded into a reused array, so the processor
+ * creates no per-record objects; calculators allocating working memory, such
+ * as the map-based ones, still do.
+ */
+public final class LandscapeBatchProcessor {
+
+  static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+  private LandscapeBatchProcessor() {
+  }
+
+  public static void main(final String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: LandscapeBatchProcessor input output [adaptive|vectorOrScalar|calculator class]");
+      System.exit(1);
+    }
+    final LandscapeWaterCalculator calculator = calculator(args.length > 2 ? args[2] : "adaptive");
+    final Report report = process(Paths.get(args[0]), Paths.get(args[1]), calculator);
+    System.out.println(report);
+  }
+
+  /**
+   * @param input      batch file
+   * @param output     file of the water amounts, replaced if it exists
+   * @param calculator of the records
+   * @return throughput of the run
+   * @throws IllegalArgumentException if the batch is malformed or a record is
+   *                                  rejected by the calculator
+   */
+  public static Report process(final Path input, final Path output, final LandscapeWaterCalculator calculator)
+      throws IOException {
+    final long start = System.nanoTime();
+    try (LandscapeBatchReader reader = new LandscapeBatchReader(FileChannel.open(input, StandardOpenOption.READ));
+        FileChannel results = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+
+      final ByteBuffer amounts = ByteBuffer.allocateDirect(OUTPUT_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (reader.next()) {
+        final long amount;
+        try {
+          amount = reader.calculateWaterAmount(calculator);
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Wrong record " + (reader.records() - 1), e);
+        }
+        if (!amounts.hasRemaining())
+          write(amounts, results);
+        amounts.putLong(amount);
+      }
+      write(amounts, results);
+      return new Report(reader.records(), reader.bytesRead(), System.nanoTime() - start);
+    }
+  }
+
+  static LandscapeWaterCalculator calculator(final String name) throws ReflectiveOperationException {
+    if ("adaptive".equals(name))
+      return LandscapeWaterCalculators.adaptive();
+    if ("vectorOrScalar".equals(name))
+      return LandscapeWaterCalculators.vectorOrScalar();
+    final String className = name.indexOf('.') < 0
+        ? LandscapeWaterCalculator.class.getPackage().getName() + '.' + name
+        : name;
+    return Class.forName(className).asSubclass(LandscapeWaterCalculator.class).getDeclaredConstructor()
+        .newInstance();
+  }
+
+  private static void write(final ByteBuffer buffer, final FileChannel channel) throws IOException {
+    ((Buffer) buffer).flip();
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+    ((Buffer) buffer).clear();
+  }
+
+  public static final class Report {
+
+    private final long records;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    Report(final long records, final long bytes, final long elapsedNanos) {
+      this.records = records;
+      this.bytes = bytes;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public long records() {
+      return records;
+    }
+
+    /**
+     * @return size of the batch file
+     */
+    public long bytes() {
+      return bytes;
+    }
+
+    public long elapsedNanos() {
+      return elapsedNanos;
+    }
+
+    public double recordsPerSecond() {
+      return records * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double megabytesPerSecond() {
+      return bytes / (1024.0 * 1024.0) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("records %d, %.1f MB in %.3f s, %.0f records/s, %.1f MB/s", records,
+          bytes / (1024.0 * 1024.0), elapsedNanos / 1e9, recordsPerSecond(), megabytesPerSecond());
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Streams the records of a batch written by {@link LandscapeBatchWriter}.
+ * The channel is read into a direct buffer reused for the whole batch; a
+ * record is exposed in place until {@link #next()} moves to the following
+ * one. Records are calculated by decoding their heights into an array reused
+ * as well and passing the range to
+ * {@link LandscapeWaterCalculator#calculateWaterAmount(int[], int, int)},
+ * which every calculator of this package implements in place, so each record
+ * reaches the chosen engine at the cost of one copy into a warm array. Not
+ * thread-safe.
+ */
+public class LandscapeBatchReader implements Closeable {
+
+  private final ReadableByteChannel channel;
+  private final HeightEncoding encoding;
+  private final CRC32 checksum;
+  private ByteBuffer buffer;
+  private int[] decoded = new int[0];
+  private int heightsStart;
+  private int length = -1;
+  private int recordEnd;
+  private long records;
+  private long bytesRead;
+
+  public LandscapeBatchReader(final ReadableByteChannel channel) throws IOException {
+    this(channel, LandscapeBatchWriter.DEFAULT_BUFFER_BYTES);
+  }
+
+  /**
+   * @param channel     to read the batch from, closed with the reader
+   * @param bufferBytes initial capacity of the buffer, grown for records
+   *                    which do not fit into it
+   * @throws IllegalArgumentException if the batch header is wrong
+   */
+  public LandscapeBatchReader(final ReadableByteChannel channel, final int bufferBytes) throws IOException {
+    if (bufferBytes < LandscapeBatchWriter.HEADER_BYTES)
+      throw new IllegalArgumentException("Wrong buffer size");
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+    ((Buffer) buffer).flip();
+
+    if (!fill(LandscapeBatchWriter.HEADER_BYTES))
+      throw new IllegalArgumentException("Wrong batch header");
+    final int position = buffer.position();
+    final int encodingIndex = buffer.get(position + 5);
+    final int flags = buffer.get(position + 6);
+    if (buffer.getInt(position) != LandscapeBatchWriter.MAGIC
+        || buffer.get(position + 4) != LandscapeBatchWriter.VERSION
+        || encodingIndex < 0 || encodingIndex >= HeightEncoding.values().length
+        || (flags & ~LandscapeBatchWriter.FLAG_CRC32) != 0)
+      throw new IllegalArgumentException("Wrong batch header");
+    this.encoding = HeightEncoding.values()[encodingIndex];
+    this.checksum = (flags & LandscapeBatchWriter.FLAG_CRC32) != 0 ? new CRC32() : null;
+    this.recordEnd = position + LandscapeBatchWriter.HEADER_BYTES;
+    this.bytesRead = LandscapeBatchWriter.HEADER_BYTES;
+  }
+
+  /**
+   * Moves to the next record.
+   *
+   * @return {@code false} at the end of the batch
+   * @throws IllegalArgumentException if the record is truncated or its
+   *                                  checksum does not match
+   */
+  public boolean next() throws IOException {
+    ((Buffer) buffer).position(recordEnd);
+    length = -1;
+    if (!fill(Integer.BYTES)) {
+      if (buffer.hasRemaining())
+        throw new IllegalArgumentException("Truncated record " + records);
+      return false;
+    }
+
+    final int recordLength = buffer.getInt(buffer.position());
+    final long recordBytes = Integer.BYTES + (long) recordLength * encoding.bytes()
+        + (checksum != null ? Integer.BYTES : 0);
+    if (recordLength < 0 || recordBytes > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Wrong length of record " + records);
+    if (!fill((int) recordBytes))
+      throw new IllegalArgumentException("Truncated record " + records);
+
+    heightsStart = buffer.position() + Integer.BYTES;
+    recordEnd = buffer.position() + (int) recordBytes;
+    if (checksum != null) {
+      final int heightsEnd = recordEnd - Integer.BYTES;
+      final ByteBuffer heights = buffer.duplicate();
+      ((Buffer) heights).limit(heightsEnd);
+      ((Buffer) heights).position(heightsStart);
+      checksum.reset();
+      checksum.update(heights);
+      if ((int) checksum.getValue() != buffer.getInt(heightsEnd))
+        throw new IllegalArgumentException("Wrong checksum of record " + records);
+    }
+    length = recordLength;
+    records++;
+    bytesRead += recordBytes;
+    return true;
+  }
+
+  public HeightEncoding encoding() {
+    return encoding;
+  }
+
+  public boolean checksummed() {
+    return checksum != null;
+  }
+
+  /**
+   * @return number of heights of the current record
+   */
+  public int length() {
+    checkRecord();
+    return length;
+  }
+
+  /**
+   * @return heights of the current record
+   */
+  public int[] heights() {
+    checkRecord();
+    final int[] result = new int[length];
+    for (int i = 0; i < length; i++)
+      result[i] = encoding.height(buffer, heightsStart + i * encoding.bytes());
+    return result;
+  }
+
+  /**
+   * @return amount of water of the current record
+   */
+  public long calculateWaterAmount(final LandscapeWaterCalculator calculator) {
+    checkRecord();
+    if (decoded.length < length)
+      decoded = new int[Math.max(length, decoded.length * 2)];
+    for (int i = 0; i < length; i++)
+      decoded[i] = encoding.height(buffer, heightsStart + i * encoding.bytes());
+    return calculator.calculateWaterAmount(decoded, 0, length);
+  }
+
+  /**
+   * @return number of records read so far
+   */
+  public long records() {
+    return records;
+  }
+
+  /**
+   * @return number of bytes of the header and records read so far
+   */
+  public long bytesRead() {
+    return bytesRead;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void checkRecord() {
+    if (length < 0)
+      throw new IllegalStateException("No current record");
+  }
+
+  /**
+   * Makes at least the given number of bytes available from the buffer
+   * position, compacting or growing the buffer when needed.
+   *
+   * @return {@code false} if the channel ends before
+   */
+  private boolean fill(final int bytes) throws IOException {
+    if (buffer.remaining() >= bytes)
+      return true;
+    if (buffer.capacity() < bytes) {
+      final ByteBuffer grown = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+      grown.put(buffer);
+      buffer = grown;
+    } else {
+      buffer.compact();
+    }
+    while (buffer.position() < bytes && channel.read(buffer) >= 0) {
+      // reads until enough bytes or the end of the channel
+    }
+    ((Buffer) buffer).flip();
+    return buffer.remaining() >= bytes;
+  }
+}
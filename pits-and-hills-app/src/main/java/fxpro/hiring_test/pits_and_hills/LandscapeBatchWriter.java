@@ -0,0 +1,141 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Writes many landscapes into one binary batch file read back by
+ * {@link LandscapeBatchReader}. All numbers are little-endian:
+ *
+ * <pre>
+ * header:  int32 magic "PHLB", int8 version, int8 height encoding, int8 flags, int8 reserved
+ * record:  int32 number of heights, heights as INT16 or INT32, [int32 CRC32 of the heights]
+ * </pre>
+ *
+ * The checksum is present in every record when the {@link #FLAG_CRC32} flag
+ * is set. The number of records is not stored, the file ends after the last
+ * record, so a batch is written in one pass without seeking back to the
+ * header.
+ * <p>
+ * Records are collected in a direct buffer reused for the whole batch and
+ * written to the channel when it is full. Not thread-safe.
+ */
+public class LandscapeBatchWriter implements Closeable {
+
+  static final int MAGIC = 'P' | 'H' << 8 | 'L' << 16 | 'B' << 24;
+  static final byte VERSION = 1;
+  static final byte FLAG_CRC32 = 1;
+  static final int HEADER_BYTES = 8;
+  static final int DEFAULT_BUFFER_BYTES = 1024 * 1024;
+
+  private final WritableByteChannel channel;
+  private final HeightEncoding encoding;
+  private final CRC32 checksum;
+  private ByteBuffer buffer;
+
+  public LandscapeBatchWriter(final WritableByteChannel channel, final HeightEncoding encoding,
+      final boolean checksummed) throws IOException {
+    this(channel, encoding, checksummed, DEFAULT_BUFFER_BYTES);
+  }
+
+  /**
+   * @param channel     to write the batch to, closed with the writer
+   * @param encoding    of the heights
+   * @param checksummed whether every record is followed by its CRC32
+   * @param bufferBytes initial capacity of the buffer, grown for records
+   *                    which do not fit into it
+   */
+  public LandscapeBatchWriter(final WritableByteChannel channel, final HeightEncoding encoding,
+      final boolean checksummed, final int bufferBytes) throws IOException {
+    if (bufferBytes < HEADER_BYTES)
+      throw new IllegalArgumentException("Wrong buffer size");
+    this.channel = channel;
+    this.encoding = encoding;
+    this.checksum = checksummed ? new CRC32() : null;
+    this.buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC)
+        .put(VERSION)
+        .put((byte) encoding.ordinal())
+        .put(checksummed ? FLAG_CRC32 : 0)
+        .put((byte) 0);
+  }
+
+  public void write(final int[] landscape) throws IOException {
+    write(landscape, 0, landscape.length);
+  }
+
+  /**
+   * @param landscape presented as an array of heights
+   * @param offset    of the first height of the landscape
+   * @param length    of the landscape
+   * @throws IllegalArgumentException if a height does not fit into the
+   *                                  encoding
+   */
+  public void write(final int[] landscape, final int offset, final int length) throws IOException {
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
+
+    final long recordBytes = Integer.BYTES + (long) length * encoding.bytes()
+        + (checksum != null ? Integer.BYTES : 0);
+    if (recordBytes > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Wrong landscape length");
+    reserve((int) recordBytes);
+
+    final int recordStart = buffer.position();
+    buffer.putInt(length);
+    final int heightsStart = buffer.position();
+    if (encoding == HeightEncoding.INT16) {
+      for (int i = offset; i < offset + length; i++) {
+        if (landscape[i] != (short) landscape[i]) {
+          ((Buffer) buffer).position(recordStart);
+          throw new IllegalArgumentException(String.format("Wrong landscape height value '%1$d'", landscape[i]));
+        }
+        buffer.putShort((short) landscape[i]);
+      }
+    } else {
+      for (int i = offset; i < offset + length; i++)
+        buffer.putInt(landscape[i]);
+    }
+
+    if (checksum != null) {
+      final ByteBuffer heights = buffer.duplicate();
+      ((Buffer) heights).position(heightsStart);
+      ((Buffer) heights).limit(buffer.position());
+      checksum.reset();
+      checksum.update(heights);
+      buffer.putInt((int) checksum.getValue());
+    }
+  }
+
+  /**
+   * Writes the buffered records to the channel.
+   */
+  public void flush() throws IOException {
+    ((Buffer) buffer).flip();
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+    ((Buffer) buffer).clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void reserve(final int bytes) throws IOException {
+    if (buffer.remaining() >= bytes)
+      return;
+    flush();
+    if (buffer.capacity() < bytes)
+      buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
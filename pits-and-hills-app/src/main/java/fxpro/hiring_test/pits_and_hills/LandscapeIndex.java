@@ -0,0 +1,135 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * Immutable index of a landscape answering how much water is collected when
+ * only the columns {@code [from, to]} are considered, in O(1) per query.
+ * <p>
+ * Let {@code p} be the leftmost highest column of the range. Left of it the
+ * water level is the prefix maximum starting at {@code from}, right of it the
+ * suffix maximum ending at {@code to}. Prefix maxima starting at a column
+ * follow the chain of next strictly higher columns, and once the chain reaches
+ * {@code p} they no longer depend on where it started. So with
+ * {@code prefixMaxima[i]}, the sum of the prefix maxima starting at {@code i}
+ * up to the end of the landscape, the left part is
+ * {@code prefixMaxima[from] - prefixMaxima[p]}; the right part is symmetric.
+ * The highest column is found by a sparse table over blocks of
+ * {@value #BLOCK} columns and a scan of at most two partial blocks, which
+ * keeps the index linear in memory.
+ * <p>
+ * Like {@link LargeLandscapeWaterCalculator}, heights may be any {@code int}
+ * value. Instances are safe to share between threads.
+ */
+public final class LandscapeIndex {
+
+  static final int BLOCK = 32;
+
+  private final int[] heights;
+  private final long[] heightSums;
+  private final long[] prefixMaxima;
+  private final long[] suffixMaxima;
+  private final int[][] blockPeaks;
+
+  public LandscapeIndex(final int[] landscape) {
+    this.heights = landscape.clone();
+    final int length = heights.length;
+
+    heightSums = new long[length + 1];
+    for (int i = 0; i < length; i++)
+      heightSums[i + 1] = heightSums[i] + heights[i];
+
+    final int[] stack = new int[length];
+    int size = 0;
+
+    // prefixMaxima[i] = heights[i] * (next higher - i) + prefixMaxima[next higher]
+    prefixMaxima = new long[length + 1];
+    for (int i = length - 1; i >= 0; i--) {
+      while (size > 0 && heights[stack[size - 1]] <= heights[i])
+        size--;
+      final int next = size == 0 ? length : stack[size - 1];
+      prefixMaxima[i] = (long) heights[i] * (next - i) + prefixMaxima[next];
+      stack[size++] = i;
+    }
+
+    // suffixMaxima[i + 1] covers columns up to i; the chain steps to the
+    // previous column which is not lower, so it passes every highest column
+    suffixMaxima = new long[length + 1];
+    size = 0;
+    for (int i = 0; i < length; i++) {
+      while (size > 0 && heights[stack[size - 1]] < heights[i])
+        size--;
+      final int previous = size == 0 ? -1 : stack[size - 1];
+      suffixMaxima[i + 1] = (long) heights[i] * (i - previous) + suffixMaxima[previous + 1];
+      stack[size++] = i;
+    }
+
+    final int blocks = (length + BLOCK - 1) / BLOCK;
+    final int levels = blocks == 0 ? 1 : 32 - Integer.numberOfLeadingZeros(blocks);
+    blockPeaks = new int[levels][];
+    blockPeaks[0] = new int[blocks];
+    for (int block = 0; block < blocks; block++)
+      blockPeaks[0][block] = peak(block * BLOCK, Math.min(length, (block + 1) * BLOCK) - 1, -1);
+    for (int level = 1; level < levels; level++) {
+      final int[] lower = blockPeaks[level - 1];
+      final int[] upper = new int[blocks - (1 << level) + 1];
+      for (int block = 0; block < upper.length; block++)
+        upper[block] = higher(lower[block], lower[block + (1 << (level - 1))]);
+      blockPeaks[level] = upper;
+    }
+  }
+
+  public int length() {
+    return heights.length;
+  }
+
+  /**
+   * @return amount of water which could be collected by the whole landscape
+   */
+  public long waterAmount() {
+    return heights.length == 0 ? 0 : waterAmount(0, heights.length - 1);
+  }
+
+  /**
+   * @param from first column of the range
+   * @param to   last column of the range, inclusive
+   * @return amount of water which could be collected by the range alone
+   */
+  public long waterAmount(final int from, final int to) {
+    if (from < 0 || to >= heights.length || from > to)
+      throw new IndexOutOfBoundsException();
+
+    final int peak = peak(from, to);
+    return prefixMaxima[from] - prefixMaxima[peak]
+        + suffixMaxima[to + 1] - suffixMaxima[peak + 1]
+        - (heightSums[to + 1] - heightSums[from] - heights[peak]);
+  }
+
+  /**
+   * @return leftmost highest column of the range
+   */
+  private int peak(final int from, final int to) {
+    final int fromBlock = from / BLOCK;
+    final int toBlock = to / BLOCK;
+    if (fromBlock == toBlock)
+      return peak(from, to, -1);
+
+    int result = peak(from, (fromBlock + 1) * BLOCK - 1, -1);
+    if (toBlock - fromBlock > 1) {
+      final int first = fromBlock + 1;
+      final int count = toBlock - first;
+      final int level = 31 - Integer.numberOfLeadingZeros(count);
+      result = higher(result, higher(blockPeaks[level][first], blockPeaks[level][toBlock - (1 << level)]));
+    }
+    return peak(toBlock * BLOCK, to, result);
+  }
+
+  private int peak(final int from, final int to, int result) {
+    for (int column = from; column <= to; column++)
+      if (result < 0 || heights[column] > heights[result])
+        result = column;
+    return result;
+  }
+
+  private int higher(final int left, final int right) {
+    return heights[right] > heights[left] ? right : left;
+  }
+}
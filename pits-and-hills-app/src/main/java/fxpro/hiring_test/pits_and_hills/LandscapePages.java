@@ -0,0 +1,32 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * A landscape split into consecutive pages of heights, so it may be longer
+ * than a single Java array allows. Pages are read in place and may have
+ * different lengths, empty pages are skipped.
+ */
+public interface LandscapePages {
+
+  int pageCount();
+
+  /**
+   * @param pageIndex between 0 and {@link #pageCount()} exclusive
+   * @return heights of the page, not copied by the callers
+   */
+  int[] page(final int pageIndex);
+
+  static LandscapePages of(final int[]... pages) {
+    return new LandscapePages() {
+
+      @Override
+      public int pageCount() {
+        return pages.length;
+      }
+
+      @Override
+      public int[] page(final int pageIndex) {
+        return pages[pageIndex];
+      }
+    };
+  }
+}
@@ -0,0 +1,288 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cursor over the pits of a landscape: maximal runs of consecutive columns
+ * under water. The water level is the same over a whole pit, since it only
+ * changes at walls, which are dry.
+ * <p>
+ * Pits are found lazily in O(1) memory. Left of the highest column the water
+ * level is the prefix maximum, so that part is scanned left to right; right
+ * of it the level is the suffix maximum, so that part is scanned right to
+ * left. Pits are therefore reported left to right up to the highest column,
+ * then right to left from the end. Each {@link #next()} costs the width of the
+ * pit and of the walls before it, the whole enumeration one pass after the
+ * highest column is found.
+ * <p>
+ * Like {@link LargeLandscapeWaterCalculator}, heights may be any {@code int}
+ * value. Instances are not thread-safe.
+ */
+public final class LandscapePits {
+
+  private final int[] landscape;
+  private final int peak;
+  private int left;
+  private int leftWall = LandscapeSweeps.NO_WALL;
+  private int right;
+  private int rightWall = LandscapeSweeps.NO_WALL;
+
+  private boolean current;
+  private int start;
+  private int end;
+  private int level;
+  private long maxDepth;
+  private long volume;
+
+  private LandscapePits(final int[] landscape) {
+    this.landscape = landscape;
+    int peak = 0;
+    for (int column = 1; column < landscape.length; column++)
+      if (landscape[column] > landscape[peak])
+        peak = column;
+    this.peak = peak;
+    this.left = 0;
+    this.right = landscape.length - 1;
+  }
+
+  /**
+   * @param landscape presented as an array of heights, not copied
+   * @return cursor before the first pit
+   */
+  public static LandscapePits of(final int[] landscape) {
+    return new LandscapePits(landscape);
+  }
+
+  /**
+   * Moves to the next pit.
+   *
+   * @return {@code false} if there are no more pits
+   * @throws ArithmeticException if the volume of the pit does not fit into
+   *                             {@code long}
+   */
+  public boolean next() {
+    while (left < peak) {
+      if (landscape[left] >= leftWall) {
+        leftWall = landscape[left++];
+        continue;
+      }
+      // the highest column stops the pit at the latest
+      start = left;
+      level = leftWall;
+      maxDepth = 0;
+      volume = 0;
+      for (; landscape[left] < level; left++)
+        flood(landscape[left]);
+      end = left - 1;
+      return current = true;
+    }
+    while (right > peak) {
+      if (landscape[right] >= rightWall) {
+        rightWall = landscape[right--];
+        continue;
+      }
+      end = right;
+      level = rightWall;
+      maxDepth = 0;
+      volume = 0;
+      for (; landscape[right] < level; right--)
+        flood(landscape[right]);
+      start = right + 1;
+      return current = true;
+    }
+    return current = false;
+  }
+
+  /**
+   * @return first column of the current pit
+   */
+  public int start() {
+    checkPit();
+    return start;
+  }
+
+  /**
+   * @return last column of the current pit, inclusive
+   */
+  public int end() {
+    checkPit();
+    return end;
+  }
+
+  /**
+   * @return water level over the current pit
+   */
+  public int level() {
+    checkPit();
+    return level;
+  }
+
+  /**
+   * @return water depth over the lowest column of the current pit
+   */
+  public long maxDepth() {
+    checkPit();
+    return maxDepth;
+  }
+
+  /**
+   * @return amount of water collected by the current pit
+   */
+  public long volume() {
+    checkPit();
+    return volume;
+  }
+
+  /**
+   * @return the current pit as a value
+   */
+  public Pit pit() {
+    checkPit();
+    return new Pit(start, end, level, maxDepth, volume);
+  }
+
+  /**
+   * @return the pits of the landscape in the order of {@link #next()},
+   *         created one by one as the stream is consumed
+   */
+  public static Stream<Pit> stream(final int[] landscape) {
+    final LandscapePits pits = of(landscape);
+    return StreamSupport.stream(new Spliterators.AbstractSpliterator<Pit>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+
+      @Override
+      public boolean tryAdvance(final Consumer<? super Pit> action) {
+        if (!pits.next())
+          return false;
+        action.accept(pits.pit());
+        return true;
+      }
+    }, false);
+  }
+
+  /**
+   * Keeps only the best pits seen so far in a heap of {@code k} pits, so
+   * memory does not depend on the number of pits.
+   *
+   * @param landscape  presented as an array of heights
+   * @param k          max number of pits returned
+   * @param comparator ordering the pits from the worst to the best, e.g.
+   *                   {@link Pit#BY_VOLUME}
+   * @return the best pits, the best first
+   */
+  public static List<Pit> topK(final int[] landscape, final int k, final Comparator<? super Pit> comparator) {
+    if (k < 0)
+      throw new IllegalArgumentException("Wrong number of pits");
+    if (k == 0)
+      return new ArrayList<>();
+
+    final PriorityQueue<Pit> heap = new PriorityQueue<>(k, comparator);
+    final LandscapePits pits = of(landscape);
+    while (pits.next()) {
+      final Pit pit = pits.pit();
+      if (heap.size() < k) {
+        heap.offer(pit);
+      } else if (comparator.compare(pit, heap.peek()) > 0) {
+        heap.poll();
+        heap.offer(pit);
+      }
+    }
+    final List<Pit> result = new ArrayList<>(heap);
+    result.sort(Collections.reverseOrder(comparator));
+    return result;
+  }
+
+  private void flood(final int height) {
+    final long depth = (long) level - height;
+    if (maxDepth < depth)
+      maxDepth = depth;
+    volume = Math.addExact(volume, depth);
+  }
+
+  private void checkPit() {
+    if (!current)
+      throw new IllegalStateException("No current pit");
+  }
+
+  public static final class Pit {
+
+    public static final Comparator<Pit> BY_VOLUME = Comparator.comparingLong(Pit::volume);
+    public static final Comparator<Pit> BY_MAX_DEPTH = Comparator.comparingLong(Pit::maxDepth);
+    public static final Comparator<Pit> BY_WIDTH = Comparator.comparingInt(Pit::width);
+
+    private final int start;
+    private final int end;
+    private final int level;
+    private final long maxDepth;
+    private final long volume;
+
+    Pit(final int start, final int end, final int level, final long maxDepth, final long volume) {
+      this.start = start;
+      this.end = end;
+      this.level = level;
+      this.maxDepth = maxDepth;
+      this.volume = volume;
+    }
+
+    public int start() {
+      return start;
+    }
+
+    /**
+     * @return last column, inclusive
+     */
+    public int end() {
+      return end;
+    }
+
+    public int width() {
+      return end - start + 1;
+    }
+
+    public int level() {
+      return level;
+    }
+
+    public long maxDepth() {
+      return maxDepth;
+    }
+
+    public long volume() {
+      return volume;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof Pit))
+        return false;
+      final Pit other = (Pit) obj;
+      return start == other.start && end == other.end && level == other.level && maxDepth == other.maxDepth
+          && volume == other.volume;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = start;
+      result = 31 * result + end;
+      result = 31 * result + level;
+      result = 31 * result + Long.hashCode(maxDepth);
+      return 31 * result + Long.hashCode(volume);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Pit [%d..%d] level %d, max depth %d, volume %d", start, end, level, maxDepth, volume);
+    }
+  }
+}
@@ -0,0 +1,304 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Summary of a landscape shard from which the exact water amount of
+ * concatenated shards is computed without their heights.
+ * <p>
+ * As for {@link MutableLandscape}, the water amount is
+ *
+ * <pre>
+ * water = sum(prefix maxima) + sum(suffix maxima) - length * max - sum(heights)
+ * </pre>
+ *
+ * so a summary keeps the length, maximum and the three sums. Appending a
+ * shard to the right raises its prefix maxima to the maximum of the left
+ * shard; to find the raised sum, the summary keeps the staircase of prefix
+ * maxima seen from the left: every column higher than all columns before it,
+ * with its position. The staircase seen from the right serves appending to
+ * the left. {@link #merge(LandscapeSummary, LandscapeSummary)} is associative
+ * and costs O(steps) of the two staircases, which are a handful for random
+ * landscapes and at most the length for monotonic ones.
+ * <p>
+ * Like {@link LargeLandscapeWaterCalculator}, the length and heights are not
+ * limited; sums beyond {@code long} throw {@link ArithmeticException}.
+ * Instances are immutable.
+ */
+public final class LandscapeSummary implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final LandscapeSummary EMPTY = new LandscapeSummary(0, 0, 0, 0, LandscapeSweeps.NO_WALL,
+      new int[0], new long[0], new int[0], new long[0]);
+
+  private final long length;
+  private final long heights;
+  private final long prefixMaxima;
+  private final long suffixMaxima;
+  private final int max;
+  /** Staircase seen from the left: increasing heights and their columns. */
+  private final int[] leftStepHeights;
+  private final long[] leftStepColumns;
+  /** Staircase seen from the right: columns are counted from the right end. */
+  private final int[] rightStepHeights;
+  private final long[] rightStepColumns;
+
+  private LandscapeSummary(final long length, final long heights, final long prefixMaxima, final long suffixMaxima,
+      final int max, final int[] leftStepHeights, final long[] leftStepColumns, final int[] rightStepHeights,
+      final long[] rightStepColumns) {
+    this.length = length;
+    this.heights = heights;
+    this.prefixMaxima = prefixMaxima;
+    this.suffixMaxima = suffixMaxima;
+    this.max = max;
+    this.leftStepHeights = leftStepHeights;
+    this.leftStepColumns = leftStepColumns;
+    this.rightStepHeights = rightStepHeights;
+    this.rightStepColumns = rightStepColumns;
+  }
+
+  public static LandscapeSummary of(final int[] landscape) {
+    return of(landscape, 0, landscape.length);
+  }
+
+  /**
+   * @param landscape presented as an array of heights
+   * @param offset    of the first height of the shard
+   * @param length    of the shard
+   * @return summary of the shard
+   */
+  public static LandscapeSummary of(final int[] landscape, final int offset, final int length) {
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
+    if (length == 0)
+      return EMPTY;
+
+    long heights = 0;
+    long prefixMaxima = 0;
+    int leftSteps = 0;
+    int[] leftStepHeights = new int[16];
+    long[] leftStepColumns = new long[16];
+    int wall = LandscapeSweeps.NO_WALL;
+    for (int i = 0; i < length; i++) {
+      final int height = landscape[offset + i];
+      heights += height;
+      if (leftSteps == 0 || height > wall) {
+        if (leftSteps == leftStepHeights.length) {
+          leftStepHeights = Arrays.copyOf(leftStepHeights, leftSteps * 2);
+          leftStepColumns = Arrays.copyOf(leftStepColumns, leftSteps * 2);
+        }
+        leftStepHeights[leftSteps] = height;
+        leftStepColumns[leftSteps++] = i;
+        wall = height;
+      }
+      prefixMaxima += wall;
+    }
+
+    long suffixMaxima = 0;
+    int rightSteps = 0;
+    int[] rightStepHeights = new int[16];
+    long[] rightStepColumns = new long[16];
+    for (int i = 0; i < length; i++) {
+      final int height = landscape[offset + length - 1 - i];
+      if (rightSteps == 0 || height > wall) {
+        if (rightSteps == rightStepHeights.length) {
+          rightStepHeights = Arrays.copyOf(rightStepHeights, rightSteps * 2);
+          rightStepColumns = Arrays.copyOf(rightStepColumns, rightSteps * 2);
+        }
+        rightStepHeights[rightSteps] = height;
+        rightStepColumns[rightSteps++] = i;
+        wall = height;
+      }
+      suffixMaxima += wall;
+    }
+
+    return new LandscapeSummary(length, heights, prefixMaxima, suffixMaxima, leftStepHeights[leftSteps - 1],
+        Arrays.copyOf(leftStepHeights, leftSteps), Arrays.copyOf(leftStepColumns, leftSteps),
+        Arrays.copyOf(rightStepHeights, rightSteps), Arrays.copyOf(rightStepColumns, rightSteps));
+  }
+
+  /**
+   * @return summary of the left shard directly followed by the right one
+   */
+  public static LandscapeSummary merge(final LandscapeSummary left, final LandscapeSummary right) {
+    if (left.length == 0)
+      return right;
+    if (right.length == 0)
+      return left;
+
+    final int leftSteps = higherSteps(right.leftStepHeights, left.max);
+    final int[] leftStepHeights = concat(left.leftStepHeights, right.leftStepHeights, leftSteps);
+    final long[] leftStepColumns = concat(left.leftStepColumns, right.leftStepColumns, leftSteps, left.length);
+    final int rightSteps = higherSteps(left.rightStepHeights, right.max);
+    final int[] rightStepHeights = concat(right.rightStepHeights, left.rightStepHeights, rightSteps);
+    final long[] rightStepColumns = concat(right.rightStepColumns, left.rightStepColumns, rightSteps, right.length);
+
+    return new LandscapeSummary(Math.addExact(left.length, right.length), Math.addExact(left.heights, right.heights),
+        Math.addExact(left.prefixMaxima, right.prefixMaxima(left.max)),
+        Math.addExact(right.suffixMaxima, left.suffixMaxima(right.max)), Math.max(left.max, right.max),
+        leftStepHeights, leftStepColumns, rightStepHeights, rightStepColumns);
+  }
+
+  /**
+   * @return summary of the shards in the given order
+   */
+  public static LandscapeSummary merge(final LandscapeSummary... shards) {
+    LandscapeSummary result = EMPTY;
+    for (final LandscapeSummary shard : shards)
+      result = merge(result, shard);
+    return result;
+  }
+
+  /**
+   * @return amount of water which could be collected if the shard were a
+   *         whole landscape
+   */
+  public long waterAmount() {
+    if (length == 0)
+      return 0;
+    return Math.subtractExact(Math.addExact(prefixMaxima, suffixMaxima),
+        Math.addExact(Math.multiplyExact(length, max), heights));
+  }
+
+  /**
+   * @return number of columns
+   */
+  public long length() {
+    return length;
+  }
+
+  /**
+   * @return height of the highest column, {@link Integer#MIN_VALUE} for an
+   *         empty shard
+   */
+  public int max() {
+    return max;
+  }
+
+  /**
+   * @return number of columns higher than all columns to one side of them,
+   *         counted from both sides; it bounds the size of the summary
+   */
+  public int stepCount() {
+    return leftStepHeights.length + rightStepHeights.length;
+  }
+
+  /**
+   * Writes the summary in the format read by {@link #readFrom(DataInput)}.
+   */
+  public void writeTo(final DataOutput output) throws IOException {
+    output.writeLong(length);
+    output.writeLong(heights);
+    output.writeLong(prefixMaxima);
+    output.writeLong(suffixMaxima);
+    output.writeInt(max);
+    writeSteps(output, leftStepHeights, leftStepColumns);
+    writeSteps(output, rightStepHeights, rightStepColumns);
+  }
+
+  /**
+   * @throws IllegalArgumentException if the input is not a summary
+   */
+  public static LandscapeSummary readFrom(final DataInput input) throws IOException {
+    final long length = input.readLong();
+    final long heights = input.readLong();
+    final long prefixMaxima = input.readLong();
+    final long suffixMaxima = input.readLong();
+    final int max = input.readInt();
+    final int leftSteps = readStepCount(input, length);
+    final int[] leftStepHeights = new int[leftSteps];
+    final long[] leftStepColumns = new long[leftSteps];
+    readSteps(input, leftStepHeights, leftStepColumns, length, max);
+    final int rightSteps = readStepCount(input, length);
+    final int[] rightStepHeights = new int[rightSteps];
+    final long[] rightStepColumns = new long[rightSteps];
+    readSteps(input, rightStepHeights, rightStepColumns, length, max);
+    if (length == 0)
+      return EMPTY;
+    return new LandscapeSummary(length, heights, prefixMaxima, suffixMaxima, max, leftStepHeights, leftStepColumns,
+        rightStepHeights, rightStepColumns);
+  }
+
+  /**
+   * Sum of the prefix maxima when a wall of the given height stands to the
+   * left of the shard.
+   */
+  private long prefixMaxima(final int wall) {
+    return maxima(prefixMaxima, leftStepHeights, leftStepColumns, wall);
+  }
+
+  /**
+   * Sum of the suffix maxima when a wall of the given height stands to the
+   * right of the shard.
+   */
+  private long suffixMaxima(final int wall) {
+    return maxima(suffixMaxima, rightStepHeights, rightStepColumns, wall);
+  }
+
+  private long maxima(final long sum, final int[] stepHeights, final long[] stepColumns, final int wall) {
+    // steps not higher than the wall are replaced by the wall
+    long result = sum;
+    int step = 0;
+    for (; step < stepHeights.length && stepHeights[step] <= wall; step++) {
+      final long stepEnd = step + 1 < stepHeights.length ? stepColumns[step + 1] : length;
+      result = Math.subtractExact(result, Math.multiplyExact(stepHeights[step], stepEnd - stepColumns[step]));
+    }
+    final long covered = step < stepHeights.length ? stepColumns[step] : length;
+    return Math.addExact(result, Math.multiplyExact(wall, covered));
+  }
+
+  private static int higherSteps(final int[] stepHeights, final int wall) {
+    int result = stepHeights.length;
+    while (result > 0 && stepHeights[stepHeights.length - result] <= wall)
+      result--;
+    return result;
+  }
+
+  private static int[] concat(final int[] first, final int[] second, final int secondTail) {
+    final int[] result = Arrays.copyOf(first, first.length + secondTail);
+    System.arraycopy(second, second.length - secondTail, result, first.length, secondTail);
+    return result;
+  }
+
+  private static long[] concat(final long[] first, final long[] second, final int secondTail, final long shift) {
+    final long[] result = Arrays.copyOf(first, first.length + secondTail);
+    for (int i = 0; i < secondTail; i++)
+      result[first.length + i] = second[second.length - secondTail + i] + shift;
+    return result;
+  }
+
+  private static void writeSteps(final DataOutput output, final int[] stepHeights, final long[] stepColumns)
+      throws IOException {
+    output.writeInt(stepHeights.length);
+    for (int i = 0; i < stepHeights.length; i++) {
+      output.writeInt(stepHeights[i]);
+      output.writeLong(stepColumns[i]);
+    }
+  }
+
+  private static int readStepCount(final DataInput input, final long length) throws IOException {
+    final int steps = input.readInt();
+    if (steps < 0 || steps > length || (length > 0 && steps == 0))
+      throw new IllegalArgumentException("Wrong landscape summary");
+    return steps;
+  }
+
+  private static void readSteps(final DataInput input, final int[] stepHeights, final long[] stepColumns,
+      final long length, final int max) throws IOException {
+    for (int i = 0; i < stepHeights.length; i++) {
+      stepHeights[i] = input.readInt();
+      stepColumns[i] = input.readLong();
+      final boolean ordered = i == 0 ? stepColumns[i] == 0
+          : stepHeights[i] > stepHeights[i - 1] && stepColumns[i] > stepColumns[i - 1];
+      if (!ordered || stepColumns[i] >= length)
+        throw new IllegalArgumentException("Wrong landscape summary");
+    }
+    if (stepHeights.length > 0 && stepHeights[stepHeights.length - 1] != max)
+      throw new IllegalArgumentException("Wrong landscape summary");
+  }
+}
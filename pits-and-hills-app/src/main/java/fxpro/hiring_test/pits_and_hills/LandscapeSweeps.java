@@ -0,0 +1,246 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Two-pointer sweeps shared by the calculators. The {@code int} sweeps serve
+ * the unbounded calculators: heights are not validated, any {@code int} value
+ * is accepted and the amount is accumulated with overflow checks. The
+ * {@code short}, {@code byte} and buffer sweeps serve the overloads of
+ * {@link LandscapeWaterCalculator} and apply its limits with the shared
+ * checks below. Each keeps its own loop over its own type: a common loop over
+ * a height accessor would turn every read into a megamorphic call once the
+ * four sources are in use.
+ */
+final class LandscapeSweeps {
+
+  static final int NO_WALL = Integer.MIN_VALUE;
+
+  private LandscapeSweeps() {
+  }
+
+  /**
+   * Water collected over columns {@code from} (inclusive) to {@code to}
+   * (exclusive) when the range is enclosed by the given outer walls. Pass
+   * {@link #NO_WALL} for an open side.
+   */
+  static long twoPointers(final int[] landscape, final int from, final int to, int leftWall, int rightWall) {
+    long result = 0;
+    int left = from;
+    int right = to - 1;
+    while (left <= right) {
+      if (leftWall <= rightWall) {
+        final int height = landscape[left++];
+        if (height < leftWall)
+          result = Math.addExact(result, (long) leftWall - height);
+        else
+          leftWall = height;
+      } else {
+        final int height = landscape[right--];
+        if (height < rightWall)
+          result = Math.addExact(result, (long) rightWall - height);
+        else
+          rightWall = height;
+      }
+    }
+    return result;
+  }
+
+  static long twoPointers(final LandscapePages pages) {
+    int leftPage = 0;
+    int rightPage = pages.pageCount() - 1;
+    int[] leftHeights = null;
+    int[] rightHeights = null;
+    while (leftPage <= rightPage && (leftHeights = pages.page(leftPage)).length == 0)
+      leftPage++;
+    while (rightPage > leftPage && (rightHeights = pages.page(rightPage)).length == 0)
+      rightPage--;
+    if (leftPage > rightPage)
+      return 0;
+    if (leftPage == rightPage)
+      rightHeights = leftHeights;
+
+    long result = 0;
+    int left = 0;
+    int right = rightHeights.length - 1;
+    int leftWall = NO_WALL;
+    int rightWall = NO_WALL;
+    while (leftPage < rightPage || leftPage == rightPage && left <= right) {
+      if (leftWall <= rightWall) {
+        final int height = leftHeights[left];
+        if (height < leftWall)
+          result = Math.addExact(result, (long) leftWall - height);
+        else
+          leftWall = height;
+        if (++left == leftHeights.length) {
+          left = 0;
+          do
+            leftPage++;
+          while (leftPage < rightPage && (leftHeights = pages.page(leftPage)).length == 0);
+          if (leftPage == rightPage)
+            leftHeights = rightHeights;
+        }
+      } else {
+        final int height = rightHeights[right];
+        if (height < rightWall)
+          result = Math.addExact(result, (long) rightWall - height);
+        else
+          rightWall = height;
+        if (--right < 0) {
+          do
+            rightPage--;
+          while (rightPage > leftPage && (rightHeights = pages.page(rightPage)).length == 0);
+          if (rightPage == leftPage)
+            rightHeights = leftHeights;
+          right = rightHeights.length - 1;
+        }
+      }
+    }
+    return result;
+  }
+
+  static long twoPointers(final short[] landscape) {
+    checkLength(landscape.length);
+    if (landscape.length < 3)
+      return 0;
+
+    long result = 0;
+    int left = 0;
+    int right = landscape.length - 1;
+    int leftWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[left]);
+    int rightWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[right]);
+    while (left < right) {
+      if (leftWall <= rightWall) {
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[++left]);
+        if (height < leftWall)
+          result += leftWall - height;
+        else
+          leftWall = height;
+      } else {
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[--right]);
+        if (height < rightWall)
+          result += rightWall - height;
+        else
+          rightWall = height;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Heights are unsigned bytes, so every value is valid.
+   */
+  static long twoPointers(final byte[] landscape) {
+    checkLength(landscape.length);
+    if (landscape.length < 3)
+      return 0;
+
+    long result = 0;
+    int left = 0;
+    int right = landscape.length - 1;
+    int leftWall = landscape[left] & 0xFF;
+    int rightWall = landscape[right] & 0xFF;
+    while (left < right) {
+      if (leftWall <= rightWall) {
+        final int height = landscape[++left] & 0xFF;
+        if (height < leftWall)
+          result += leftWall - height;
+        else
+          leftWall = height;
+      } else {
+        final int height = landscape[--right] & 0xFF;
+        if (height < rightWall)
+          result += rightWall - height;
+        else
+          rightWall = height;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Heights are read with absolute gets, so the buffer position is untouched.
+   */
+  static long twoPointers(final IntBuffer landscape, final int offset, final int length) {
+    checkRange(offset, length, landscape.limit());
+    checkLength(length);
+    if (length < 3)
+      return 0;
+
+    long result = 0;
+    int left = offset;
+    int right = offset + length - 1;
+    int leftWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.get(left));
+    int rightWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.get(right));
+    while (left < right) {
+      if (leftWall <= rightWall) {
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.get(++left));
+        if (height < leftWall)
+          result += leftWall - height;
+        else
+          leftWall = height;
+      } else {
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.get(--right));
+        if (height < rightWall)
+          result += rightWall - height;
+        else
+          rightWall = height;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Heights are 32-bit integers in the byte order of the buffer, read with
+   * absolute gets, so the buffer position is untouched.
+   *
+   * @param offset in bytes
+   * @param length in heights
+   */
+  static long twoPointers(final ByteBuffer landscape, final int offset, final int length) {
+    checkRange(offset, (long) length * Integer.BYTES, landscape.limit());
+    checkLength(length);
+    if (length < 3)
+      return 0;
+
+    long result = 0;
+    int left = offset;
+    int right = offset + (length - 1) * Integer.BYTES;
+    int leftWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.getInt(left));
+    int rightWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.getInt(right));
+    while (left < right) {
+      if (leftWall <= rightWall) {
+        left += Integer.BYTES;
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.getInt(left));
+        if (height < leftWall)
+          result += leftWall - height;
+        else
+          leftWall = height;
+      } else {
+        right -= Integer.BYTES;
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape.getInt(right));
+        if (height < rightWall)
+          result += rightWall - height;
+        else
+          rightWall = height;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param offset of the first element
+   * @param size   number of elements, negative if the length was
+   * @param limit  number of elements available
+   */
+  static void checkRange(final int offset, final long size, final int limit) {
+    if (offset < 0 || size < 0 || offset > limit - size)
+      throw new IndexOutOfBoundsException();
+  }
+
+  static void checkLength(final int length) {
+    if (length > LandscapeWaterCalculatorImplTwoPointers.MAX_LANDSCAPE_LENGTH)
+      throw new IllegalArgumentException("Wrong landscape length");
+  }
+}
@@ -0,0 +1,83 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.Arrays;
+
+/**
+ * Streaming counterpart of {@link LandscapeWaterCalculator}: heights are pushed
+ * left to right in any number of calls and the landscape is never stored.
+ * <p>
+ * Only the walls which may still hold water are kept, as a stack of strictly
+ * decreasing heights. Each pushed height pops the lower walls and settles the
+ * water between them, so the work is amortized O(1) per height and memory is
+ * bounded by the longest strictly descending run still open.
+ * <p>
+ * Like {@link LargeLandscapeWaterCalculator}, the length and heights are not
+ * limited. Instances are not thread-safe.
+ */
+public class LandscapeWaterAccumulator {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private int[] wallHeights = new int[INITIAL_CAPACITY];
+  private long[] wallColumns = new long[INITIAL_CAPACITY];
+  private int walls;
+  private long columns;
+  private long waterAmount;
+
+  public LandscapeWaterAccumulator accept(final int height) {
+    while (walls > 0 && wallHeights[walls - 1] <= height) {
+      final int bottom = wallHeights[--walls];
+      if (walls == 0)
+        break;
+      final int level = Math.min(wallHeights[walls - 1], height);
+      final long width = columns - wallColumns[walls - 1] - 1;
+      waterAmount = Math.addExact(waterAmount, Math.multiplyExact((long) level - bottom, width));
+    }
+    if (walls == wallHeights.length) {
+      wallHeights = Arrays.copyOf(wallHeights, walls * 2);
+      wallColumns = Arrays.copyOf(wallColumns, walls * 2);
+    }
+    wallHeights[walls] = height;
+    wallColumns[walls] = columns++;
+    walls++;
+    return this;
+  }
+
+  public LandscapeWaterAccumulator accept(final int[] chunk, final int off, final int len) {
+    if (off < 0 || len < 0 || off > chunk.length - len)
+      throw new IndexOutOfBoundsException();
+    for (int i = off; i < off + len; i++)
+      accept(chunk[i]);
+    return this;
+  }
+
+  /**
+   * @return amount of water already enclosed by walls on both sides; it never
+   *         decreases as more heights are pushed
+   */
+  public long currentWaterAmount() {
+    return waterAmount;
+  }
+
+  /**
+   * @return number of heights pushed since creation or the last
+   *         {@link #finish()}
+   */
+  public long length() {
+    return columns;
+  }
+
+  /**
+   * Completes the landscape and resets the accumulator for the next one,
+   * keeping its grown buffers.
+   *
+   * @return amount of water which could be collected
+   */
+  public long finish() {
+    final long result = waterAmount;
+    walls = 0;
+    columns = 0;
+    waterAmount = 0;
+    return result;
+  }
+}
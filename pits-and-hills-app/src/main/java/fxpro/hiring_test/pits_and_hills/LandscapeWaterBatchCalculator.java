@@ -0,0 +1,101 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Calculates many landscapes in one call, spread over an {@link Executor}.
+ * The batch is split into contiguous slices, one per task. Every worker thread
+ * takes its calculator from a thread-local created by the given factory, so
+ * calculators with scratch state reuse it across landscapes and batches.
+ * Small batches are calculated by the calling thread.
+ */
+public class LandscapeWaterBatchCalculator {
+
+  static final int MIN_LANDSCAPES_PER_TASK = 64;
+
+  private final ThreadLocal<LandscapeWaterCalculator> calculators;
+  private final Executor executor;
+  private final int parallelism;
+
+  /**
+   * @param calculatorFactory creates a calculator for every worker thread
+   * @param executor          to run the slices on
+   * @param parallelism       max number of slices of a batch
+   */
+  public LandscapeWaterBatchCalculator(final Supplier<? extends LandscapeWaterCalculator> calculatorFactory,
+      final Executor executor, final int parallelism) {
+    if (parallelism < 1)
+      throw new IllegalArgumentException("Wrong parallelism");
+    this.calculators = ThreadLocal.withInitial(calculatorFactory);
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @param landscapes presented as arrays of heights
+   * @return amount of water of every landscape
+   */
+  public long[] calculateWaterAmounts(final int[][] landscapes) {
+    final long[] results = new long[landscapes.length];
+    run(landscapes.length, (from, to) -> {
+      final LandscapeWaterCalculator calculator = calculators.get();
+      for (int i = from; i < to; i++)
+        results[i] = calculator.calculateWaterAmount(landscapes[i]);
+    });
+    return results;
+  }
+
+  /**
+   * @param heights of all landscapes one after another
+   * @param offsets of the landscapes in {@code heights} followed by the end
+   *                offset of the last one, so there is one offset more than
+   *                landscapes
+   * @return amount of water of every landscape
+   */
+  public long[] calculateWaterAmounts(final int[] heights, final int[] offsets) {
+    if (offsets.length == 0)
+      throw new IllegalArgumentException("Wrong landscape offsets");
+    for (int i = 0; i < offsets.length; i++)
+      if (offsets[i] < (i == 0 ? 0 : offsets[i - 1]) || offsets[i] > heights.length)
+        throw new IllegalArgumentException("Wrong landscape offsets");
+
+    final long[] results = new long[offsets.length - 1];
+    run(results.length, (from, to) -> {
+      final LandscapeWaterCalculator calculator = calculators.get();
+      for (int i = from; i < to; i++)
+        results[i] = calculator.calculateWaterAmount(heights, offsets[i], offsets[i + 1] - offsets[i]);
+    });
+    return results;
+  }
+
+  private void run(final int count, final Slice slice) {
+    final int tasks = Math.min(parallelism, (count + MIN_LANDSCAPES_PER_TASK - 1) / MIN_LANDSCAPES_PER_TASK);
+    if (tasks <= 1) {
+      slice.calculate(0, count);
+      return;
+    }
+
+    final CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+    for (int task = 0; task < tasks; task++) {
+      final int from = (int) ((long) count * task / tasks);
+      final int to = (int) ((long) count * (task + 1) / tasks);
+      futures[task] = CompletableFuture.runAsync(() -> slice.calculate(from, to), executor);
+    }
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw e;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Slice {
+
+    void calculate(final int from, final int to);
+  }
+}
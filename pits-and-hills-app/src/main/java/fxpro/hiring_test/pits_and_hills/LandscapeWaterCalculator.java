@@ -1,5 +1,9 @@
 package fxpro.hiring_test.pits_and_hills;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
 public interface LandscapeWaterCalculator {
 
   /**
@@ -9,7 +13,81 @@ public interface LandscapeWaterCalculator {
    * 
    * @param landscape presented as an array of heights
    * @return amount of water which could be collected
+   * @see LargeLandscapeWaterCalculator for landscapes beyond these limits
    */
   long calculateWaterAmount(final int[] landscape);
 
+  /**
+   * Same as {@link #calculateWaterAmount(int[])} for the landscape stored in a
+   * part of the array. The default implementation calculates a copy of the
+   * range, implementations override it to work in place.
+   * 
+   * @param landscape presented as an array of heights
+   * @param offset    of the first height of the landscape
+   * @param length    of the landscape
+   * @return amount of water which could be collected
+   */
+  default long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
+    return calculateWaterAmount(Arrays.copyOfRange(landscape, offset, offset + length));
+  }
+
+  /**
+   * Same as {@link #calculateWaterAmount(int[])} for heights stored as
+   * {@code short}s, half the memory of {@code int}s. The default
+   * implementation sweeps the array in place, without widening it; engines
+   * keep it, decorators forward the call to the calculator they wrap.
+   * 
+   * @param landscape presented as an array of heights
+   * @return amount of water which could be collected
+   */
+  default long calculateWaterAmount(final short[] landscape) {
+    return LandscapeSweeps.twoPointers(landscape);
+  }
+
+  /**
+   * Same as {@link #calculateWaterAmount(int[])} for heights from 0 to 255
+   * stored as unsigned bytes, a quarter of the memory of {@code int}s. The
+   * default implementation sweeps the array in place, without widening it;
+   * engines keep it, decorators forward the call to the calculator they wrap.
+   * 
+   * @param landscape presented as an array of unsigned heights
+   * @return amount of water which could be collected
+   */
+  default long calculateWaterAmount(final byte[] landscape) {
+    return LandscapeSweeps.twoPointers(landscape);
+  }
+
+  /**
+   * Same as {@link #calculateWaterAmount(int[], int, int)} for a heap or
+   * direct buffer. The default implementation reads the buffer in place with
+   * absolute gets: neither its position is changed nor a copy is made.
+   * Decorators forward the call to the calculator they wrap.
+   * 
+   * @param landscape presented as a buffer of heights
+   * @param offset    index of the first height of the landscape
+   * @param length    of the landscape
+   * @return amount of water which could be collected
+   */
+  default long calculateWaterAmount(final IntBuffer landscape, final int offset, final int length) {
+    return LandscapeSweeps.twoPointers(landscape, offset, length);
+  }
+
+  /**
+   * Same as {@link #calculateWaterAmount(IntBuffer, int, int)} for heights
+   * stored as 32-bit integers in the byte order of the buffer. A
+   * {@code MemorySegment} is read through its {@code asByteBuffer()} view,
+   * which shares the memory of the segment. Decorators forward the call to
+   * the calculator they wrap.
+   * 
+   * @param landscape presented as a buffer of heights
+   * @param offset    in bytes of the first height of the landscape
+   * @param length    of the landscape in heights
+   * @return amount of water which could be collected
+   */
+  default long calculateWaterAmount(final ByteBuffer landscape, final int offset, final int length) {
+    return LandscapeSweeps.twoPointers(landscape, offset, length);
+  }
+
 }
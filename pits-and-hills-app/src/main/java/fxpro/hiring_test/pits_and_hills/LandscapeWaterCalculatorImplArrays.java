@@ -6,11 +6,19 @@ public class LandscapeWaterCalculatorImplArrays implements LandscapeWaterCalcula
   static final int MAX_LANDSCAPE_HEIGHT = 32_000;
 
   public long calculateWaterAmount(final int[] landscape) {
+    return calculateWaterAmount(landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
 
-    if (landscape.length > MAX_LANDSCAPE_LENGTH)
+    if (length > MAX_LANDSCAPE_LENGTH)
       throw new IllegalArgumentException("Wrong landscape length");
 
-    if (landscape.length < 3)
+    if (length < 3)
       return 0;
 
     final LeftRightPair[] heights = new LeftRightPair[MAX_LANDSCAPE_HEIGHT + 1];
@@ -19,7 +27,7 @@ public class LandscapeWaterCalculatorImplArrays implements LandscapeWaterCalcula
     {
       int _peak = Integer.MIN_VALUE;
       int _index = -1;
-      for (int i = 0; i < landscape.length; i++) {
+      for (int i = offset; i < offset + length; i++) {
 
         if (landscape[i] < 0 || landscape[i] > MAX_LANDSCAPE_HEIGHT)
           throw new IllegalArgumentException(String.format("Wrong landscape height value '%1$d'", landscape[i]));
@@ -38,26 +46,25 @@ public class LandscapeWaterCalculatorImplArrays implements LandscapeWaterCalcula
     }
 
     long result = 0;
-    final boolean[] taken = new boolean[landscape.length];
+    final boolean[] taken = new boolean[length];
+    int from = peakColumn;
+    int to = peakColumn;
     for (int row = heights.length - 1; row >= 0; row--) {
 
       final LeftRightPair pair = heights[row];
       if (pair == null)
         continue;
 
-      int from = pair.left;
-      int to = pair.right;
-
-      if (from == to)
-        if (from > peakColumn)
-          from = peakColumn;
-        else
-          to = peakColumn;
+      // the range of a row covers the ranges of all higher rows
+      if (from > pair.left)
+        from = pair.left;
+      if (to < pair.right)
+        to = pair.right;
 
       for (int column = from; column <= to; column++)
-        if (landscape[column] < row && !taken[column]) {
+        if (landscape[column] < row && !taken[column - offset]) {
           result += row - landscape[column];
-          taken[column] = true;
+          taken[column - offset] = true;
         }
     }
     return result;
@@ -0,0 +1,115 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.Arrays;
+
+/**
+ * Height-ordered sweep of {@link LandscapeWaterCalculatorImplArrays} which
+ * allocates nothing per call. The boxed keys, map nodes and
+ * {@code LeftRightPair} objects of the other sweeps are replaced by primitive
+ * scratch arrays owned by the instance and pre-sized for the maximum height:
+ * <ul>
+ * <li>{@code lefts} and {@code rights} hold the outermost columns of every
+ * height;</li>
+ * <li>the {@code rows} bitset marks the heights present, so the sweep visits
+ * them from the highest down without scanning absent ones.</li>
+ * </ul>
+ * The range of a row only grows as the sweep goes down, and a column can only
+ * hold water from the row its range reaches it first. So instead of the
+ * {@code taken} flags only the columns added to the range are scanned, every
+ * column once.
+ * <p>
+ * Instances are not thread-safe, use one per thread or {@link #perThread()}.
+ */
+public class LandscapeWaterCalculatorImplArraysReusable implements LandscapeWaterCalculator {
+
+  static final int MAX_LANDSCAPE_LENGTH = 32_000;
+  static final int MAX_LANDSCAPE_HEIGHT = 32_000;
+
+  private final int[] lefts = new int[MAX_LANDSCAPE_HEIGHT + 1];
+  private final int[] rights = new int[MAX_LANDSCAPE_HEIGHT + 1];
+  private final long[] rows = new long[(MAX_LANDSCAPE_HEIGHT >>> 6) + 1];
+
+  /**
+   * @return calculator which delegates to an instance owned by the calling
+   *         thread
+   */
+  public static LandscapeWaterCalculator perThread() {
+    final ThreadLocal<LandscapeWaterCalculatorImplArraysReusable> calculators = ThreadLocal
+        .withInitial(LandscapeWaterCalculatorImplArraysReusable::new);
+    return new LandscapeWaterCalculator() {
+
+      @Override
+      public long calculateWaterAmount(final int[] landscape) {
+        return calculators.get().calculateWaterAmount(landscape);
+      }
+
+      @Override
+      public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+        return calculators.get().calculateWaterAmount(landscape, offset, length);
+      }
+    };
+  }
+
+  public long calculateWaterAmount(final int[] landscape) {
+    return calculateWaterAmount(landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
+
+    if (length > MAX_LANDSCAPE_LENGTH)
+      throw new IllegalArgumentException("Wrong landscape length");
+
+    if (length < 3)
+      return 0;
+
+    int peak = Integer.MIN_VALUE;
+    int peakColumn = -1;
+    for (int column = offset; column < offset + length; column++) {
+      final int height = landscape[column];
+      if (height < 0 || height > MAX_LANDSCAPE_HEIGHT) {
+        Arrays.fill(rows, 0);
+        throw new IllegalArgumentException(String.format("Wrong landscape height value '%1$d'", height));
+      }
+      final long bit = 1L << height;
+      if ((rows[height >>> 6] & bit) == 0) {
+        rows[height >>> 6] |= bit;
+        lefts[height] = column;
+      }
+      rights[height] = column;
+      if (peak < height) {
+        peak = height;
+        peakColumn = column;
+      }
+    }
+
+    long result = 0;
+    int from = peakColumn;
+    int to = peakColumn;
+    for (int word = peak >>> 6; word >= 0; word--) {
+      long bits = rows[word];
+      rows[word] = 0;
+      while (bits != 0) {
+        final int bit = 63 - Long.numberOfLeadingZeros(bits);
+        bits &= ~(1L << bit);
+        final int row = word << 6 | bit;
+
+        for (int column = lefts[row]; column < from; column++)
+          if (landscape[column] < row)
+            result += row - landscape[column];
+        if (from > lefts[row])
+          from = lefts[row];
+
+        for (int column = rights[row]; column > to; column--)
+          if (landscape[column] < row)
+            result += row - landscape[column];
+        if (to < rights[row])
+          to = rights[row];
+      }
+    }
+    return result;
+  }
+}
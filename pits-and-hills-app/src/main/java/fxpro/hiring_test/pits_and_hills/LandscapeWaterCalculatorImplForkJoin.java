@@ -0,0 +1,259 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits the landscape into segments and calculates them in parallel on a
+ * {@link ForkJoinPool}:
+ * <ol>
+ * <li>the maximum height of every segment is found in parallel;</li>
+ * <li>prefix and suffix maxima over the segment maxima give the outer left and
+ * right walls of every segment;</li>
+ * <li>every segment runs the two-pointer sweep enclosed by its outer walls in
+ * parallel and the amounts are summed.</li>
+ * </ol>
+ * Landscapes not longer than the sequential threshold are calculated by a
+ * single-threaded two-pointer sweep. Pages of {@link LandscapePages} are taken
+ * as the segments as they are.
+ * <p>
+ * The default threshold of {@value #DEFAULT_SEQUENTIAL_THRESHOLD} columns is
+ * above the 32000 columns of {@link #calculateWaterAmount(int[])}, so with the
+ * default constructor only {@link LargeLandscapeWaterCalculator} landscapes
+ * are split: a sweep over 32000 columns takes tens of microseconds, about the
+ * cost of handing segments to the pool. The heights of bounded landscapes are
+ * validated by the segment tasks while they look for the segment maxima.
+ */
+public class LandscapeWaterCalculatorImplForkJoin implements LandscapeWaterCalculator, LargeLandscapeWaterCalculator {
+
+  static final int MAX_LANDSCAPE_LENGTH = 32_000;
+  static final int MAX_LANDSCAPE_HEIGHT = 32_000;
+
+  static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 16;
+
+  private final ForkJoinPool pool;
+  private final int sequentialThreshold;
+  private final LandscapeWaterCalculator sequential = new LandscapeWaterCalculatorImplTwoPointers();
+
+  public LandscapeWaterCalculatorImplForkJoin() {
+    this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+  }
+
+  /**
+   * @param pool                to run the segments on
+   * @param sequentialThreshold segment length, landscapes not longer than it
+   *                            are calculated by the calling thread
+   */
+  public LandscapeWaterCalculatorImplForkJoin(final ForkJoinPool pool, final int sequentialThreshold) {
+    if (sequentialThreshold < 1)
+      throw new IllegalArgumentException("Wrong sequential threshold");
+    this.pool = pool;
+    this.sequentialThreshold = sequentialThreshold;
+  }
+
+  public long calculateWaterAmount(final int[] landscape) {
+    return calculateWaterAmount(landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
+
+    if (length > MAX_LANDSCAPE_LENGTH)
+      throw new IllegalArgumentException("Wrong landscape length");
+
+    if (length <= sequentialThreshold)
+      return sequential.calculateWaterAmount(landscape, offset, length);
+
+    return calculate(segments(landscape, offset, length), true);
+  }
+
+  public long calculateLargeWaterAmount(final int[] landscape) {
+
+    if (landscape.length <= sequentialThreshold)
+      return LandscapeSweeps.twoPointers(landscape, 0, landscape.length, LandscapeSweeps.NO_WALL,
+          LandscapeSweeps.NO_WALL);
+
+    return calculate(segments(landscape, 0, landscape.length), false);
+  }
+
+  private Segments segments(final int[] landscape, final int offset, final int length) {
+    return new Segments() {
+
+      @Override
+      int count() {
+        return (length - 1) / sequentialThreshold + 1;
+      }
+
+      @Override
+      int[] heights(final int segment) {
+        return landscape;
+      }
+
+      @Override
+      int from(final int segment) {
+        return offset + segment * sequentialThreshold;
+      }
+
+      @Override
+      int to(final int segment) {
+        return offset + (int) Math.min(length, (long) (segment + 1) * sequentialThreshold);
+      }
+    };
+  }
+
+  public long calculateLargeWaterAmount(final LandscapePages landscape) {
+    return calculate(new Segments() {
+
+      @Override
+      int count() {
+        return landscape.pageCount();
+      }
+
+      @Override
+      int[] heights(final int segment) {
+        return landscape.page(segment);
+      }
+
+      @Override
+      int from(final int segment) {
+        return 0;
+      }
+
+      @Override
+      int to(final int segment) {
+        return landscape.page(segment).length;
+      }
+    }, false);
+  }
+
+  /**
+   * @param bounded whether heights are validated as for
+   *                {@link #calculateWaterAmount(int[])}
+   */
+  private long calculate(final Segments segments, final boolean bounded) {
+
+    final int count = segments.count();
+    final int[] maxima = new int[count];
+    final int[] wrongColumns = bounded ? new int[count] : null;
+    pool.invoke(new SegmentMaxima(segments, maxima, wrongColumns, 0, count));
+
+    // the first wrong height in column order, as a sequential sweep reports it
+    if (bounded)
+      for (int segment = 0; segment < count; segment++)
+        if (wrongColumns[segment] >= 0)
+          throw new IllegalArgumentException(String.format("Wrong landscape height value '%1$d'",
+              segments.heights(segment)[wrongColumns[segment]]));
+
+    final int[] leftWalls = new int[count];
+    final int[] rightWalls = new int[count];
+    int wall = LandscapeSweeps.NO_WALL;
+    for (int segment = 0; segment < count; segment++) {
+      leftWalls[segment] = wall;
+      wall = Math.max(wall, maxima[segment]);
+    }
+    wall = LandscapeSweeps.NO_WALL;
+    for (int segment = count - 1; segment >= 0; segment--) {
+      rightWalls[segment] = wall;
+      wall = Math.max(wall, maxima[segment]);
+    }
+
+    return pool.invoke(new SegmentWater(segments, leftWalls, rightWalls, 0, count));
+  }
+
+  private abstract static class Segments {
+
+    abstract int count();
+
+    abstract int[] heights(final int segment);
+
+    abstract int from(final int segment);
+
+    abstract int to(final int segment);
+  }
+
+  private static class SegmentMaxima extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    final Segments segments;
+    final int[] maxima;
+    /** Column of the first wrong height of every segment or -1, if validated. */
+    final int[] wrongColumns;
+    final int first;
+    final int last;
+
+    SegmentMaxima(final Segments segments, final int[] maxima, final int[] wrongColumns, final int first,
+        final int last) {
+      this.segments = segments;
+      this.maxima = maxima;
+      this.wrongColumns = wrongColumns;
+      this.first = first;
+      this.last = last;
+    }
+
+    @Override
+    protected void compute() {
+      if (last - first > 1) {
+        final int middle = (first + last) >>> 1;
+        invokeAll(new SegmentMaxima(segments, maxima, wrongColumns, first, middle),
+            new SegmentMaxima(segments, maxima, wrongColumns, middle, last));
+        return;
+      }
+      if (first == last)
+        return;
+      final int[] heights = segments.heights(first);
+      final int to = segments.to(first);
+      int max = LandscapeSweeps.NO_WALL;
+      int wrongColumn = -1;
+      for (int column = segments.from(first); column < to; column++) {
+        final int height = heights[column];
+        if (max < height)
+          max = height;
+        if (wrongColumn < 0 && (height < 0 || height > MAX_LANDSCAPE_HEIGHT))
+          wrongColumn = column;
+      }
+      maxima[first] = max;
+      if (wrongColumns != null)
+        wrongColumns[first] = wrongColumn;
+    }
+  }
+
+  private static class SegmentWater extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    final Segments segments;
+    final int[] leftWalls;
+    final int[] rightWalls;
+    final int first;
+    final int last;
+
+    SegmentWater(final Segments segments, final int[] leftWalls, final int[] rightWalls, final int first,
+        final int last) {
+      this.segments = segments;
+      this.leftWalls = leftWalls;
+      this.rightWalls = rightWalls;
+      this.first = first;
+      this.last = last;
+    }
+
+    @Override
+    protected Long compute() {
+      if (last - first > 1) {
+        final int middle = (first + last) >>> 1;
+        final SegmentWater right = new SegmentWater(segments, leftWalls, rightWalls, middle, last);
+        right.fork();
+        final long left = new SegmentWater(segments, leftWalls, rightWalls, first, middle).compute();
+        return Math.addExact(left, right.join());
+      }
+      if (first == last)
+        return 0L;
+      return LandscapeSweeps.twoPointers(segments.heights(first), segments.from(first), segments.to(first),
+          leftWalls[first], rightWalls[first]);
+    }
+  }
+}
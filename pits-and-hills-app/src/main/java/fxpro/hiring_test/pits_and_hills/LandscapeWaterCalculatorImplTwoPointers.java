@@ -0,0 +1,72 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * Walks the landscape from both ends towards each other, always moving the
+ * side with the lower wall. Water above a column is bounded by the lower of
+ * the two walls, so every column is visited exactly once: O(N) time and O(1)
+ * extra memory regardless of the landscape shape. Nothing is allocated per
+ * call.
+ * <p>
+ * Also serves as {@link LargeLandscapeWaterCalculator}, where neither the
+ * length nor the heights are limited.
+ */
+public class LandscapeWaterCalculatorImplTwoPointers
+    implements LandscapeWaterCalculator, LargeLandscapeWaterCalculator {
+
+  static final int MAX_LANDSCAPE_LENGTH = 32_000;
+  static final int MAX_LANDSCAPE_HEIGHT = 32_000;
+
+  public long calculateWaterAmount(final int[] landscape) {
+    return calculateWaterAmount(landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
+
+    if (length > MAX_LANDSCAPE_LENGTH)
+      throw new IllegalArgumentException("Wrong landscape length");
+
+    if (length < 3)
+      return 0;
+
+    long result = 0;
+    int left = offset;
+    int right = offset + length - 1;
+    int leftWall = checkHeight(landscape[left]);
+    int rightWall = checkHeight(landscape[right]);
+    while (left < right) {
+      if (leftWall <= rightWall) {
+        final int height = checkHeight(landscape[++left]);
+        if (height < leftWall)
+          result += leftWall - height;
+        else
+          leftWall = height;
+      } else {
+        final int height = checkHeight(landscape[--right]);
+        if (height < rightWall)
+          result += rightWall - height;
+        else
+          rightWall = height;
+      }
+    }
+    return result;
+  }
+
+  public long calculateLargeWaterAmount(final int[] landscape) {
+    return LandscapeSweeps.twoPointers(landscape, 0, landscape.length, LandscapeSweeps.NO_WALL,
+        LandscapeSweeps.NO_WALL);
+  }
+
+  public long calculateLargeWaterAmount(final LandscapePages landscape) {
+    return LandscapeSweeps.twoPointers(landscape);
+  }
+
+  static int checkHeight(final int height) {
+    if (height < 0 || height > MAX_LANDSCAPE_HEIGHT)
+      throw new IllegalArgumentException(String.format("Wrong landscape height value '%1$d'", height));
+    return height;
+  }
+}
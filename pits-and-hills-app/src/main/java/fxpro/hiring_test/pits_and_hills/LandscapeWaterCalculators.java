@@ -0,0 +1,147 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Factories choosing a {@link LandscapeWaterCalculator} implementation for the
+ * running JVM.
+ */
+public final class LandscapeWaterCalculators {
+
+  static final String VECTOR_IMPLEMENTATION = "fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplVector";
+  static final String VECTOR_THRESHOLD_PROPERTY = "fxpro.hiring_test.pits_and_hills.adaptive.vectorThreshold";
+
+  private static final Logger LOGGER = Logger.getLogger(LandscapeWaterCalculators.class.getName());
+
+  private static volatile LandscapeWaterCalculator adaptive;
+
+  private LandscapeWaterCalculators() {
+  }
+
+  /**
+   * The vector implementation is shipped in {@code META-INF/versions/17} of
+   * the multi-release jar and needs {@code --add-modules jdk.incubator.vector}
+   * at runtime. When either is missing, the scalar two-pointer implementation
+   * is returned instead.
+   *
+   * @return the fastest calculator available on this JVM
+   */
+  public static LandscapeWaterCalculator vectorOrScalar() {
+    final LandscapeWaterCalculator vector = vector();
+    return vector != null ? vector : new LandscapeWaterCalculatorImplTwoPointers();
+  }
+
+  /**
+   * Sends short landscapes to the scalar two-pointer implementation and long
+   * ones to the vector implementation, if it is available. The length from
+   * which the vector implementation is used is taken from the
+   * {@value #VECTOR_THRESHOLD_PROPERTY} system property or, when it is not
+   * set or malformed, measured once per JVM by a short benchmark started on a
+   * background thread by the first call of this method. Until the benchmark
+   * finishes, every landscape goes to the scalar implementation.
+   *
+   * @return thread-safe calculator shared by all callers
+   */
+  public static LandscapeWaterCalculator adaptive() {
+    LandscapeWaterCalculator result = adaptive;
+    if (result == null) {
+      synchronized (LandscapeWaterCalculators.class) {
+        result = adaptive;
+        if (result == null)
+          adaptive = result = adaptiveOrCalibrated(System.getProperty(VECTOR_THRESHOLD_PROPERTY));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Same as {@link #adaptive()} with the length from which the vector
+   * implementation is used given explicitly.
+   */
+  public static LandscapeWaterCalculator adaptive(final int vectorThreshold) {
+    final LandscapeWaterCalculator vector = vector();
+    if (vector == null)
+      return new LandscapeWaterCalculatorImplTwoPointers();
+    return new AdaptiveLandscapeWaterCalculator(new LandscapeWaterCalculatorImplTwoPointers(), vector,
+        vectorThreshold);
+  }
+
+  /**
+   * Threshold for {@link #adaptive(int)} taken from the
+   * {@value #VECTOR_THRESHOLD_PROPERTY} system property or, when it is not set
+   * or malformed, measured by the benchmark of {@link #adaptive()} on the
+   * calling thread. Lets every thread own an adaptive calculator without each
+   * calibrating on its own.
+   *
+   * @return length from which the vector implementation is faster,
+   *         {@link Integer#MAX_VALUE} if it is not available
+   */
+  public static int vectorThreshold() {
+    return vectorThreshold(System.getProperty(VECTOR_THRESHOLD_PROPERTY));
+  }
+
+  /**
+   * @param vectorThreshold configured threshold, {@code null} to calibrate
+   */
+  static int vectorThreshold(final String vectorThreshold) {
+    final LandscapeWaterCalculator vector = vector();
+    if (vector == null)
+      return Integer.MAX_VALUE;
+    if (vectorThreshold != null) {
+      try {
+        return Integer.parseInt(vectorThreshold.trim());
+      } catch (NumberFormatException e) {
+        warnCalibrating(vectorThreshold, e);
+      }
+    }
+    return AdaptiveLandscapeWaterCalculator.calibrate(new LandscapeWaterCalculatorImplTwoPointers(), vector);
+  }
+
+  /**
+   * @param vectorThreshold configured threshold, {@code null} to calibrate
+   * @throws IllegalArgumentException if the threshold is malformed
+   */
+  static LandscapeWaterCalculator adaptive(final String vectorThreshold) {
+    if (vectorThreshold != null) {
+      try {
+        return adaptive(Integer.parseInt(vectorThreshold.trim()));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Wrong vector threshold", e);
+      }
+    }
+    final LandscapeWaterCalculator vector = vector();
+    if (vector == null)
+      return new LandscapeWaterCalculatorImplTwoPointers();
+    final AdaptiveLandscapeWaterCalculator result = new AdaptiveLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), vector, Integer.MAX_VALUE);
+    result.calibrateInBackground();
+    return result;
+  }
+
+  /**
+   * Same as {@link #adaptive(String)}, calibrating instead of failing if the
+   * threshold is malformed.
+   */
+  static LandscapeWaterCalculator adaptiveOrCalibrated(final String vectorThreshold) {
+    try {
+      return adaptive(vectorThreshold);
+    } catch (IllegalArgumentException e) {
+      warnCalibrating(vectorThreshold, e);
+      return adaptive((String) null);
+    }
+  }
+
+  private static void warnCalibrating(final String vectorThreshold, final Exception e) {
+    LOGGER.log(Level.WARNING, "Ignoring wrong " + VECTOR_THRESHOLD_PROPERTY + " '" + vectorThreshold
+        + "', calibrating instead", e);
+  }
+
+  private static LandscapeWaterCalculator vector() {
+    try {
+      return (LandscapeWaterCalculator) Class.forName(VECTOR_IMPLEMENTATION).getConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+}
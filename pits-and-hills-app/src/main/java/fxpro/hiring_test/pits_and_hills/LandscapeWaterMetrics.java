@@ -0,0 +1,152 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of the calls made through {@link InstrumentedLandscapeWaterCalculator}:
+ * latency and landscape length histograms of the accepted calls and the count
+ * of landscapes rejected with {@link IllegalArgumentException}. One registry
+ * may be shared by several calculators.
+ * <p>
+ * Recording is lock-free and allocation-free. The current state is read
+ * through {@link #snapshot()} or, once {@linkplain #register(String)
+ * registered}, through JMX.
+ */
+public final class LandscapeWaterMetrics implements LandscapeWaterMetricsMBean {
+
+  static final String DOMAIN = "fxpro.hiring_test.pits_and_hills";
+
+  private final LogLinearHistogram latencies = new LogLinearHistogram();
+  private final LogLinearHistogram lengths = new LogLinearHistogram();
+  private final LongAdder rejected = new LongAdder();
+  private final long startNanos = System.nanoTime();
+
+  void recordCall(final int length, final long latencyNanos) {
+    lengths.record(length);
+    latencies.record(latencyNanos);
+  }
+
+  void recordRejected() {
+    rejected.increment();
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(latencies.snapshot(), lengths.snapshot(), rejected.sum(), System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Registers this registry in the platform MBean server as
+   * {@code fxpro.hiring_test.pits_and_hills:type=LandscapeWaterMetrics,name=<name>}.
+   */
+  public ObjectName register(final String name) throws JMException {
+    final ObjectName result = new ObjectName(DOMAIN + ":type=" + LandscapeWaterMetrics.class.getSimpleName()
+        + ",name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, result);
+    return result;
+  }
+
+  public long getCalls() {
+    return snapshot().calls();
+  }
+
+  public long getRejectedCalls() {
+    return rejected.sum();
+  }
+
+  public double getCallsPerSecond() {
+    return snapshot().callsPerSecond();
+  }
+
+  public long getLatencyP50Nanos() {
+    return latencies.snapshot().percentile(50);
+  }
+
+  public long getLatencyP99Nanos() {
+    return latencies.snapshot().percentile(99);
+  }
+
+  public long getLatencyP999Nanos() {
+    return latencies.snapshot().percentile(99.9);
+  }
+
+  public long getLatencyMaxNanos() {
+    return latencies.snapshot().max();
+  }
+
+  public long getLengthP50() {
+    return lengths.snapshot().percentile(50);
+  }
+
+  public long getLengthP99() {
+    return lengths.snapshot().percentile(99);
+  }
+
+  public long getLengthMax() {
+    return lengths.snapshot().max();
+  }
+
+  /**
+   * State of {@link LandscapeWaterMetrics} at some moment.
+   */
+  public static final class Snapshot {
+
+    private final LogLinearHistogram.Snapshot latencies;
+    private final LogLinearHistogram.Snapshot lengths;
+    private final long rejected;
+    private final long elapsedNanos;
+
+    Snapshot(final LogLinearHistogram.Snapshot latencies, final LogLinearHistogram.Snapshot lengths,
+        final long rejected, final long elapsedNanos) {
+      this.latencies = latencies;
+      this.lengths = lengths;
+      this.rejected = rejected;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of accepted calls
+     */
+    public long calls() {
+      return latencies.count();
+    }
+
+    public long rejectedCalls() {
+      return rejected;
+    }
+
+    /**
+     * @return time since the registry was created
+     */
+    public long elapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * @return accepted calls per second since the registry was created
+     */
+    public double callsPerSecond() {
+      return elapsedNanos == 0 ? 0 : calls() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return accepted calls per second between an earlier snapshot and this one
+     */
+    public double callsPerSecondSince(final Snapshot earlier) {
+      final long nanos = elapsedNanos - earlier.elapsedNanos;
+      return nanos <= 0 ? 0 : (calls() - earlier.calls()) * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    public LogLinearHistogram.Snapshot latencyNanos() {
+      return latencies;
+    }
+
+    public LogLinearHistogram.Snapshot lengths() {
+      return lengths;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * JMX view of {@link LandscapeWaterMetrics}.
+ */
+public interface LandscapeWaterMetricsMBean {
+
+  long getCalls();
+
+  long getRejectedCalls();
+
+  double getCallsPerSecond();
+
+  long getLatencyP50Nanos();
+
+  long getLatencyP99Nanos();
+
+  long getLatencyP999Nanos();
+
+  long getLatencyMaxNanos();
+
+  long getLengthP50();
+
+  long getLengthP99();
+
+  long getLengthMax();
+}
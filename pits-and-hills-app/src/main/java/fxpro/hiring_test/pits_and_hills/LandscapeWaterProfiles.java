@@ -0,0 +1,104 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.nio.IntBuffer;
+
+/**
+ * Per-column water depth of a landscape, written into buffers supplied by the
+ * caller. The two-pointer sweep settles the depth of every column as it
+ * passes it, so the profile costs the same single pass as the total and
+ * nothing is allocated.
+ * <p>
+ * The landscape is limited as for {@link LandscapeWaterCalculator}.
+ */
+public final class LandscapeWaterProfiles {
+
+  static final int MAX_LANDSCAPE_LENGTH = 32_000;
+
+  private LandscapeWaterProfiles() {
+  }
+
+  /**
+   * @param landscape presented as an array of heights
+   * @param depths    receives the water depth of every column, at least as
+   *                  long as the landscape
+   * @return amount of water which could be collected
+   */
+  public static long calculateWaterProfile(final int[] landscape, final int[] depths) {
+    if (depths.length < landscape.length)
+      throw new IllegalArgumentException("Wrong profile buffer length");
+    return calculate(landscape, depths, 0, null);
+  }
+
+  /**
+   * Same as {@link #calculateWaterProfile(int[], int[])} which also writes the
+   * running total: {@code prefixSums[i]} is the water collected by columns 0
+   * to {@code i}.
+   */
+  public static long calculateWaterProfile(final int[] landscape, final int[] depths, final long[] prefixSums) {
+    if (prefixSums.length < landscape.length)
+      throw new IllegalArgumentException("Wrong profile buffer length");
+    final long result = calculateWaterProfile(landscape, depths);
+    long sum = 0;
+    for (int column = 0; column < landscape.length; column++)
+      prefixSums[column] = sum += depths[column];
+    return result;
+  }
+
+  /**
+   * Same as {@link #calculateWaterProfile(int[], int[])} for a heap or direct
+   * buffer. Depths are written from the buffer position on, the position
+   * itself is left untouched.
+   */
+  public static long calculateWaterProfile(final int[] landscape, final IntBuffer depths) {
+    if (depths.remaining() < landscape.length)
+      throw new IllegalArgumentException("Wrong profile buffer length");
+    if (depths.hasArray())
+      return calculate(landscape, depths.array(), depths.arrayOffset() + depths.position(), null);
+    return calculate(landscape, null, depths.position(), depths);
+  }
+
+  private static long calculate(final int[] landscape, final int[] depths, final int offset,
+      final IntBuffer buffer) {
+
+    if (landscape.length > MAX_LANDSCAPE_LENGTH)
+      throw new IllegalArgumentException("Wrong landscape length");
+
+    if (landscape.length == 0)
+      return 0;
+
+    long result = 0;
+    int left = 0;
+    int right = landscape.length - 1;
+    int leftWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[left]);
+    int rightWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[right]);
+    put(depths, buffer, offset + left, 0);
+    put(depths, buffer, offset + right, 0);
+    while (left < right) {
+      final int column;
+      final int depth;
+      if (leftWall <= rightWall) {
+        column = ++left;
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[column]);
+        depth = height < leftWall ? leftWall - height : 0;
+        if (depth == 0)
+          leftWall = height;
+      } else {
+        column = --right;
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[column]);
+        depth = height < rightWall ? rightWall - height : 0;
+        if (depth == 0)
+          rightWall = height;
+      }
+      put(depths, buffer, offset + column, depth);
+      result += depth;
+    }
+    return result;
+  }
+
+  private static void put(final int[] depths, final IntBuffer buffer, final int index, final int depth) {
+    if (depths != null)
+      depths[index] = depth;
+    else
+      buffer.put(index, depth);
+  }
+}
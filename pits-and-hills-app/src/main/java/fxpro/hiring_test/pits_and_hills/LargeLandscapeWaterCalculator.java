@@ -0,0 +1,30 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * Counterpart of {@link LandscapeWaterCalculator} without the 32000 length and
+ * height caps. Heights may be any {@code int} value, negative ones included,
+ * and the amount is accumulated in {@code long} arithmetic.
+ */
+public interface LargeLandscapeWaterCalculator {
+
+  /**
+   * Takes a landscape of any length up to the array limit and calculate how
+   * many water could be collected inside pits only.
+   * 
+   * @param landscape presented as an array of heights
+   * @return amount of water which could be collected
+   * @throws ArithmeticException if the amount does not fit into {@code long}
+   */
+  long calculateLargeWaterAmount(final int[] landscape);
+
+  /**
+   * Same as {@link #calculateLargeWaterAmount(int[])} for a landscape
+   * presented page by page, which lets it exceed 2^31 columns.
+   * 
+   * @param landscape presented as consecutive pages of heights
+   * @return amount of water which could be collected
+   * @throws ArithmeticException if the amount does not fit into {@code long}
+   */
+  long calculateLargeWaterAmount(final LandscapePages landscape);
+
+}
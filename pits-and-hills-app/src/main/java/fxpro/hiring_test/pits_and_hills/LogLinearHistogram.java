@@ -0,0 +1,104 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative {@code long} values in log-linear buckets, as in
+ * HdrHistogram: every power of two is split into {@value #SUB_BUCKETS} equal
+ * buckets, so a value is known within 1/{@value #SUB_BUCKETS} of itself over
+ * the whole {@code long} range in a fixed array of {@value #BUCKETS} counters.
+ * <p>
+ * Recording is lock-free and allocation-free; snapshots are not atomic with
+ * respect to concurrent recording, which only matters for the values recorded
+ * while the snapshot is taken.
+ */
+public final class LogLinearHistogram {
+
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(final long value) {
+    if (value < 0)
+      throw new IllegalArgumentException("Wrong histogram value");
+    counts.incrementAndGet(bucket(value));
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value))
+      current = max.get();
+  }
+
+  public Snapshot snapshot() {
+    final long[] result = new long[BUCKETS];
+    for (int bucket = 0; bucket < BUCKETS; bucket++)
+      result[bucket] = counts.get(bucket);
+    return new Snapshot(result, max.get());
+  }
+
+  static int bucket(final long value) {
+    if (value < SUB_BUCKETS)
+      return (int) value;
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * @return highest value counted into the bucket
+   */
+  static long highestValue(final int bucket) {
+    if (bucket < SUB_BUCKETS)
+      return bucket;
+    final int shift = bucket / SUB_BUCKETS - 1;
+    final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /**
+   * Counts of a {@link LogLinearHistogram} at some moment.
+   */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long max;
+
+    Snapshot(final long[] counts, final long max) {
+      this.counts = counts;
+      long total = 0;
+      for (final long bucketCount : counts)
+        total += bucketCount;
+      this.count = total;
+      this.max = max;
+    }
+
+    public long count() {
+      return count;
+    }
+
+    public long max() {
+      return max;
+    }
+
+    /**
+     * @param percentile in {@code [0, 100]}
+     * @return value which {@code percentile} percent of the recorded values do
+     *         not exceed, rounded up to its bucket; 0 if nothing is recorded
+     */
+    public long percentile(final double percentile) {
+      if (!(percentile >= 0 && percentile <= 100))
+        throw new IllegalArgumentException("Wrong percentile");
+      final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+      long seen = 0;
+      for (int bucket = 0; bucket < counts.length; bucket++) {
+        seen += counts[bucket];
+        if (seen >= rank)
+          return Math.min(highestValue(bucket), max);
+      }
+      return 0;
+    }
+  }
+}
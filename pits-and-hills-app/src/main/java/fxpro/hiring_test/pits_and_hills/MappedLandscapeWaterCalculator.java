@@ -0,0 +1,114 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Calculates the water amount of a landscape stored as a flat file of
+ * little-endian heights without loading it into the heap. The file is
+ * memory-mapped in windows of a fixed number of columns: one window moves
+ * forward from the start and another backward from the end, as the two-pointer
+ * sweep of {@link LandscapeSweeps} requires, so pages are accessed
+ * sequentially and at most two windows are mapped at once.
+ * <p>
+ * Like {@link LargeLandscapeWaterCalculator}, the length and heights are not
+ * limited.
+ */
+public class MappedLandscapeWaterCalculator {
+
+  static final int DEFAULT_WINDOW_COLUMNS = 16 * 1024 * 1024;
+
+  private final HeightEncoding encoding;
+  private final int windowColumns;
+
+  public MappedLandscapeWaterCalculator(final HeightEncoding encoding) {
+    this(encoding, DEFAULT_WINDOW_COLUMNS);
+  }
+
+  /**
+   * @param encoding      of the heights in the file
+   * @param windowColumns number of columns mapped by each window
+   */
+  public MappedLandscapeWaterCalculator(final HeightEncoding encoding, final int windowColumns) {
+    if (windowColumns <= 0 || (long) windowColumns * encoding.bytes() > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Wrong window size");
+    this.encoding = encoding;
+    this.windowColumns = windowColumns;
+  }
+
+  /**
+   * @param file of little-endian heights
+   * @return amount of water which could be collected
+   * @throws IOException         if the file could not be read
+   * @throws ArithmeticException if the amount does not fit into {@code long}
+   */
+  public long calculateWaterAmount(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      final long size = channel.size();
+      if (size % encoding.bytes() != 0)
+        throw new IllegalArgumentException("Wrong landscape file size");
+
+      final long length = size / encoding.bytes();
+      if (length < 3)
+        return 0;
+
+      final Window leftWindow = new Window(channel);
+      final Window rightWindow = new Window(channel);
+
+      long result = 0;
+      long left = 0;
+      long right = length - 1;
+      int leftWall = LandscapeSweeps.NO_WALL;
+      int rightWall = LandscapeSweeps.NO_WALL;
+      while (left <= right) {
+        if (leftWall <= rightWall) {
+          if (left > leftWindow.last)
+            leftWindow.map(left, Math.min(length, left + windowColumns) - 1);
+          final int height = leftWindow.height(left++);
+          if (height < leftWall)
+            result = Math.addExact(result, (long) leftWall - height);
+          else
+            leftWall = height;
+        } else {
+          if (right < rightWindow.first)
+            rightWindow.map(Math.max(0, right - windowColumns + 1), right);
+          final int height = rightWindow.height(right--);
+          if (height < rightWall)
+            result = Math.addExact(result, (long) rightWall - height);
+          else
+            rightWall = height;
+        }
+      }
+      return result;
+    }
+  }
+
+  private class Window {
+
+    final FileChannel channel;
+    MappedByteBuffer buffer;
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+
+    Window(final FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void map(final long first, final long last) throws IOException {
+      buffer = channel.map(MapMode.READ_ONLY, first * encoding.bytes(), (last - first + 1) * encoding.bytes());
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      this.first = first;
+      this.last = last;
+    }
+
+    int height(final long column) {
+      return encoding.height(buffer, (int) (column - first) * encoding.bytes());
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * Landscape with point updates which keeps its water amount up to date.
+ * <p>
+ * The water level above a column is the lower of its prefix and suffix
+ * maxima, and the higher of the two is always the global maximum, so
+ *
+ * <pre>
+ * water = sum(prefix maxima) + sum(suffix maxima) - length * max - sum(heights)
+ * </pre>
+ *
+ * A segment tree keeps the maximum and both sums of maxima for every node.
+ * The prefix maxima of a right child depend on the maximum of its left
+ * sibling; they are recomputed by descending one path of the subtree, so an
+ * update costs O(log^2 N) and {@link #waterAmount()} costs O(1).
+ * <p>
+ * Like {@link LargeLandscapeWaterCalculator}, heights may be any {@code int}
+ * value. Instances are not thread-safe.
+ */
+public class MutableLandscape {
+
+  private final int length;
+  private final int[] max;
+  private final long[] prefixMaxima;
+  private final long[] suffixMaxima;
+  private long heights;
+
+  /**
+   * Creates a flat landscape of zero heights.
+   */
+  public MutableLandscape(final int length) {
+    this(new int[length]);
+  }
+
+  public MutableLandscape(final int[] landscape) {
+    if (landscape.length > Integer.MAX_VALUE / 4)
+      throw new IllegalArgumentException("Wrong landscape length");
+    this.length = landscape.length;
+    final int nodes = length == 0 ? 1 : 4 * length;
+    this.max = new int[nodes];
+    this.prefixMaxima = new long[nodes];
+    this.suffixMaxima = new long[nodes];
+    if (length > 0)
+      build(1, 0, length - 1, landscape);
+    for (final int height : landscape)
+      heights += height;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public int height(final int index) {
+    if (index < 0 || index >= length)
+      throw new IndexOutOfBoundsException();
+    int node = 1;
+    int lo = 0;
+    int hi = length - 1;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (index <= mid) {
+        node = 2 * node;
+        hi = mid;
+      } else {
+        node = 2 * node + 1;
+        lo = mid + 1;
+      }
+    }
+    return max[node];
+  }
+
+  public void setHeight(final int index, final int height) {
+    if (index < 0 || index >= length)
+      throw new IndexOutOfBoundsException();
+    heights += (long) height - height(index);
+    update(1, 0, length - 1, index, height);
+  }
+
+  /**
+   * @return amount of water which could be collected
+   */
+  public long waterAmount() {
+    if (length == 0)
+      return 0;
+    return prefixMaxima[1] + suffixMaxima[1] - (long) length * max[1] - heights;
+  }
+
+  private void build(final int node, final int lo, final int hi, final int[] landscape) {
+    if (lo == hi) {
+      setLeaf(node, landscape[lo]);
+      return;
+    }
+    final int mid = (lo + hi) >>> 1;
+    build(2 * node, lo, mid, landscape);
+    build(2 * node + 1, mid + 1, hi, landscape);
+    pull(node, lo, mid, hi);
+  }
+
+  private void update(final int node, final int lo, final int hi, final int index, final int height) {
+    if (lo == hi) {
+      setLeaf(node, height);
+      return;
+    }
+    final int mid = (lo + hi) >>> 1;
+    if (index <= mid)
+      update(2 * node, lo, mid, index, height);
+    else
+      update(2 * node + 1, mid + 1, hi, index, height);
+    pull(node, lo, mid, hi);
+  }
+
+  private void setLeaf(final int node, final int height) {
+    max[node] = height;
+    prefixMaxima[node] = height;
+    suffixMaxima[node] = height;
+  }
+
+  private void pull(final int node, final int lo, final int mid, final int hi) {
+    final int left = 2 * node;
+    final int right = 2 * node + 1;
+    max[node] = Math.max(max[left], max[right]);
+    prefixMaxima[node] = prefixMaxima[left] + prefixMaxima(right, mid + 1, hi, max[left]);
+    suffixMaxima[node] = suffixMaxima[right] + suffixMaxima(left, lo, mid, max[right]);
+  }
+
+  /**
+   * Sum of the prefix maxima of the node range when a wall of the given height
+   * stands to the left of it.
+   */
+  private long prefixMaxima(int node, int lo, int hi, final int wall) {
+    long result = 0;
+    while (lo < hi) {
+      if (wall >= max[node])
+        return result + (long) wall * (hi - lo + 1);
+      final int mid = (lo + hi) >>> 1;
+      if (wall < max[2 * node]) {
+        // the right child sees the maximum of the left one as its wall
+        result += prefixMaxima[node] - prefixMaxima[2 * node];
+        node = 2 * node;
+        hi = mid;
+      } else {
+        result += (long) wall * (mid - lo + 1);
+        node = 2 * node + 1;
+        lo = mid + 1;
+      }
+    }
+    return result + Math.max(wall, max[node]);
+  }
+
+  /**
+   * Sum of the suffix maxima of the node range when a wall of the given height
+   * stands to the right of it.
+   */
+  private long suffixMaxima(int node, int lo, int hi, final int wall) {
+    long result = 0;
+    while (lo < hi) {
+      if (wall >= max[node])
+        return result + (long) wall * (hi - lo + 1);
+      final int mid = (lo + hi) >>> 1;
+      if (wall < max[2 * node + 1]) {
+        // the left child sees the maximum of the right one as its wall
+        result += suffixMaxima[node] - suffixMaxima[2 * node + 1];
+        node = 2 * node + 1;
+        lo = mid + 1;
+      } else {
+        result += (long) wall * (hi - mid);
+        node = 2 * node;
+        hi = mid;
+      }
+    }
+    return result + Math.max(wall, max[node]);
+  }
+}
@@ -0,0 +1,146 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.Arrays;
+
+/**
+ * Landscape stored as runs of columns of the same height: {@code heights[i]}
+ * repeated {@code runLengths[i]} times.
+ * <p>
+ * The water amount is calculated over the runs without expanding them. In the
+ * two-pointer sweep all columns of a run are either under water to the same
+ * depth or walls themselves, so a run is passed in one step and weighted by
+ * its length: O(runs) time whatever the number of columns.
+ * <p>
+ * Heights are limited as for {@link LandscapeWaterCalculator}, the number of
+ * columns is not; an amount beyond {@code long} throws
+ * {@link ArithmeticException}.
+ */
+public final class RunLengthLandscape {
+
+  private final int[] heights;
+  private final int[] runLengths;
+
+  /**
+   * @param heights    of the runs
+   * @param runLengths numbers of columns of the runs, at least 1 each
+   */
+  public RunLengthLandscape(final int[] heights, final int[] runLengths) {
+    checkRuns(heights, runLengths);
+    this.heights = heights.clone();
+    this.runLengths = runLengths.clone();
+  }
+
+  private RunLengthLandscape(final int[] heights, final int[] runLengths, final int runs) {
+    this.heights = Arrays.copyOf(heights, runs);
+    this.runLengths = Arrays.copyOf(runLengths, runs);
+  }
+
+  /**
+   * @param landscape presented as an array of heights
+   * @return the landscape with equal neighbouring heights merged into runs
+   */
+  public static RunLengthLandscape encode(final int[] landscape) {
+    final int[] heights = new int[landscape.length];
+    final int[] runLengths = new int[landscape.length];
+    int runs = 0;
+    for (final int height : landscape) {
+      if (runs > 0 && heights[runs - 1] == height) {
+        runLengths[runs - 1]++;
+      } else {
+        heights[runs] = height;
+        runLengths[runs++] = 1;
+      }
+    }
+    return new RunLengthLandscape(heights, runLengths, runs);
+  }
+
+  /**
+   * @return the landscape as an array of heights
+   */
+  public int[] decode() {
+    final long length = length();
+    if (length > Integer.MAX_VALUE)
+      throw new IllegalStateException("Landscape is too long for an array");
+    final int[] result = new int[(int) length];
+    int column = 0;
+    for (int run = 0; run < heights.length; run++) {
+      Arrays.fill(result, column, column + runLengths[run], heights[run]);
+      column += runLengths[run];
+    }
+    return result;
+  }
+
+  public int runCount() {
+    return heights.length;
+  }
+
+  /**
+   * @return number of columns
+   */
+  public long length() {
+    long result = 0;
+    for (final int runLength : runLengths)
+      result += runLength;
+    return result;
+  }
+
+  public int[] heights() {
+    return heights.clone();
+  }
+
+  public int[] runLengths() {
+    return runLengths.clone();
+  }
+
+  /**
+   * @return amount of water which could be collected
+   */
+  public long waterAmount() {
+    return calculateWaterAmount(heights, runLengths);
+  }
+
+  /**
+   * Same as {@link LandscapeWaterCalculator#calculateWaterAmount(int[])} for
+   * a landscape given as runs, without building a {@link RunLengthLandscape}.
+   *
+   * @param heights    of the runs
+   * @param runLengths numbers of columns of the runs, at least 1 each
+   * @return amount of water which could be collected
+   */
+  public static long calculateWaterAmount(final int[] heights, final int[] runLengths) {
+    checkRuns(heights, runLengths);
+
+    if (heights.length < 3)
+      return 0;
+
+    long result = 0;
+    int left = 0;
+    int right = heights.length - 1;
+    int leftWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(heights[left]);
+    int rightWall = LandscapeWaterCalculatorImplTwoPointers.checkHeight(heights[right]);
+    while (left < right) {
+      if (leftWall <= rightWall) {
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(heights[++left]);
+        if (height < leftWall)
+          result = Math.addExact(result, (long) (leftWall - height) * runLengths[left]);
+        else
+          leftWall = height;
+      } else {
+        final int height = LandscapeWaterCalculatorImplTwoPointers.checkHeight(heights[--right]);
+        if (height < rightWall)
+          result = Math.addExact(result, (long) (rightWall - height) * runLengths[right]);
+        else
+          rightWall = height;
+      }
+    }
+    return result;
+  }
+
+  private static void checkRuns(final int[] heights, final int[] runLengths) {
+    if (heights.length != runLengths.length)
+      throw new IllegalArgumentException("Wrong run lengths");
+    for (final int runLength : runLengths)
+      if (runLength < 1)
+        throw new IllegalArgumentException("Wrong run lengths");
+  }
+}
@@ -0,0 +1,179 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * Water amount of the most recent samples of an unbounded series of heights.
+ * <p>
+ * As in {@link MutableLandscape}, the amount is the sum of the prefix maxima
+ * plus the sum of the suffix maxima, less the window length times the
+ * maximum and the sum of the heights, and each term is kept for the window
+ * in a ring buffer:
+ * <ul>
+ * <li>the suffix maxima are a stack of runs of equal maxima, non-increasing
+ * from the oldest sample: a new sample merges the runs not above it into its
+ * own, the oldest sample leaves the first run, which also holds the
+ * maximum;</li>
+ * <li>the prefix maxima from the oldest sample step from every sample to the
+ * next higher one, a link set once that sample arrives. The sum along the
+ * links is found with path compression, up to a sample nothing higher
+ * followed yet, whose height fills the rest of the window. Links only point
+ * to newer samples, so the oldest one leaves without unlinking anything.</li>
+ * </ul>
+ * {@link #push(int)} costs amortized O(1) and {@link #windowWaterAmount()}
+ * amortized O(log W), whatever the number of samples seen.
+ * <p>
+ * Like {@link MutableLandscape}, heights may be any {@code int} value.
+ * Instances are not thread-safe.
+ */
+public class SlidingWindowWaterCalculator {
+
+  private static final int NONE = -1;
+
+  private final int[] window;
+  /** Slot of the next higher sample, {@link #NONE} until it arrives. */
+  private final int[] higher;
+  /** Sum of the prefix maxima from a sample up to, excluding, its link. */
+  private final long[] linkedMaxima;
+  /** Slots of the samples without a higher one yet, oldest first. */
+  private final int[] unlinked;
+  private int unlinkedFirst;
+  private int unlinkedCount;
+  /** Runs of equal suffix maxima, oldest first. */
+  private final int[] runHeights;
+  private final int[] runLengths;
+  private int runFirst;
+  private int runCount;
+  private long suffixMaxima;
+  private long heights;
+  private int size;
+  private int next;
+
+  /**
+   * @param windowLength number of the most recent samples the water amount is
+   *                     calculated for
+   */
+  public SlidingWindowWaterCalculator(final int windowLength) {
+    if (windowLength <= 0)
+      throw new IllegalArgumentException("Wrong window length");
+    this.window = new int[windowLength];
+    this.higher = new int[windowLength];
+    this.linkedMaxima = new long[windowLength];
+    this.unlinked = new int[windowLength];
+    this.runHeights = new int[windowLength];
+    this.runLengths = new int[windowLength];
+  }
+
+  /**
+   * Appends a sample, dropping the oldest one if the window is full.
+   */
+  public void push(final int height) {
+    if (size == window.length)
+      dropOldest();
+    final int slot = next;
+    window[slot] = height;
+    heights += height;
+    next = next + 1 == window.length ? 0 : next + 1;
+    size++;
+
+    while (unlinkedCount > 0) {
+      final int last = unlinked[ring(unlinkedFirst + unlinkedCount - 1)];
+      if (window[last] >= height)
+        break;
+      higher[last] = slot;
+      linkedMaxima[last] = (long) window[last] * distance(last, slot);
+      unlinkedCount--;
+    }
+    higher[slot] = NONE;
+    unlinked[ring(unlinkedFirst + unlinkedCount++)] = slot;
+
+    int length = 1;
+    while (runCount > 0) {
+      final int last = ring(runFirst + runCount - 1);
+      if (runHeights[last] > height)
+        break;
+      suffixMaxima -= (long) runHeights[last] * runLengths[last];
+      length += runLengths[last];
+      runCount--;
+    }
+    final int run = ring(runFirst + runCount++);
+    runHeights[run] = height;
+    runLengths[run] = length;
+    suffixMaxima += (long) height * length;
+  }
+
+  /**
+   * @return amount of water which could be collected by the samples in the
+   *         window, oldest first
+   */
+  public long windowWaterAmount() {
+    if (size < 3)
+      return 0;
+    final int oldest = oldest();
+    compress(oldest);
+    final int top = higher[oldest] == NONE ? oldest : higher[oldest];
+    final long prefixMaxima = (top == oldest ? 0 : linkedMaxima[oldest])
+        + (long) window[top] * (size - distance(oldest, top));
+    return prefixMaxima + suffixMaxima - (long) size * runHeights[runFirst] - heights;
+  }
+
+  /**
+   * @return number of samples in the window, at most the window length
+   */
+  public int size() {
+    return size;
+  }
+
+  public int windowLength() {
+    return window.length;
+  }
+
+  private void dropOldest() {
+    final int oldest = oldest();
+    heights -= window[oldest];
+    if (unlinkedCount > 0 && unlinked[unlinkedFirst] == oldest) {
+      unlinkedFirst = ring(unlinkedFirst + 1);
+      unlinkedCount--;
+    }
+    suffixMaxima -= runHeights[runFirst];
+    if (--runLengths[runFirst] == 0) {
+      runFirst = ring(runFirst + 1);
+      runCount--;
+    }
+    size--;
+  }
+
+  /**
+   * Links every sample on the path from the slot straight to its end.
+   */
+  private void compress(final int slot) {
+    long total = 0;
+    int top = slot;
+    while (higher[top] != NONE) {
+      total += linkedMaxima[top];
+      top = higher[top];
+    }
+    int node = slot;
+    while (higher[node] != NONE && higher[node] != top) {
+      final int following = higher[node];
+      final long step = linkedMaxima[node];
+      higher[node] = top;
+      linkedMaxima[node] = total;
+      total -= step;
+      node = following;
+    }
+  }
+
+  private int oldest() {
+    return ring(next - size + window.length);
+  }
+
+  /**
+   * @return number of samples from the older slot to the newer one
+   */
+  private int distance(final int older, final int newer) {
+    return ring(newer - older + window.length);
+  }
+
+  private int ring(final int index) {
+    return index < window.length ? index : index - window.length;
+  }
+}
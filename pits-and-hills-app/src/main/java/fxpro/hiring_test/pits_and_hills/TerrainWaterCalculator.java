@@ -0,0 +1,27 @@
+package fxpro.hiring_test.pits_and_hills;
+
+/**
+ * 2D counterpart of {@link LandscapeWaterCalculator}: water trapped on a grid
+ * of heights, where water runs off through the four edges of the grid and
+ * between cells sharing a side.
+ */
+public interface TerrainWaterCalculator {
+
+  /**
+   * Takes a terrain as parameter and calculate how many water could be
+   * collected inside pits only. Height must be between 0 and 32000.
+   * 
+   * @param terrain presented as a row-major array of heights
+   * @param width   number of columns
+   * @param height  number of rows
+   * @return volume of water which could be collected
+   */
+  long calculateWaterVolume(final int[] terrain, final int width, final int height);
+
+  /**
+   * Same as {@link #calculateWaterVolume(int[], int, int)} for a terrain of
+   * {@code short} heights, half the memory of an {@code int[]}.
+   */
+  long calculateWaterVolume(final short[] terrain, final int width, final int height);
+
+}
@@ -0,0 +1,115 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import java.util.Arrays;
+
+/**
+ * Priority-flood: the edge cells are the initial shore, and the lowest shore
+ * cell is flooded inwards, so each neighbour either holds water up to the
+ * level of that cell or becomes the shore at its own height.
+ * <p>
+ * Levels never go down during the flood and heights are at most 32000, so the
+ * priority queue is a bucket queue: one stack of cells per level, linked
+ * through a single {@code int[]} of next cells. Visited cells are tracked in a
+ * bitset. Memory is primitive only: about 4 bytes and 1 bit per cell besides
+ * the terrain itself; time is O(cells + max height).
+ */
+public class TerrainWaterCalculatorImplPriorityFlood implements TerrainWaterCalculator {
+
+  static final int MAX_TERRAIN_HEIGHT = 32_000;
+
+  private static final int NONE = -1;
+
+  public long calculateWaterVolume(final int[] terrain, final int width, final int height) {
+    checkSize(terrain.length, width, height);
+    for (final int cell : terrain)
+      checkHeight(cell);
+    return flood(column -> terrain[column], width, height);
+  }
+
+  public long calculateWaterVolume(final short[] terrain, final int width, final int height) {
+    checkSize(terrain.length, width, height);
+    for (final short cell : terrain)
+      checkHeight(cell);
+    return flood(column -> terrain[column], width, height);
+  }
+
+  private static long flood(final Heights terrain, final int width, final int height) {
+
+    if (width < 3 || height < 3)
+      return 0;
+
+    final int cells = width * height;
+    final int[] next = new int[cells];
+    final int[] levels = new int[MAX_TERRAIN_HEIGHT + 1];
+    Arrays.fill(levels, NONE);
+    final long[] visited = new long[(cells + 63) >>> 6];
+
+    for (int x = 0; x < width; x++) {
+      shore(x, terrain, next, levels, visited);
+      shore(cells - width + x, terrain, next, levels, visited);
+    }
+    for (int y = 1; y < height - 1; y++) {
+      shore(y * width, terrain, next, levels, visited);
+      shore(y * width + width - 1, terrain, next, levels, visited);
+    }
+
+    long result = 0;
+    for (int level = 0; level <= MAX_TERRAIN_HEIGHT; level++)
+      while (levels[level] != NONE) {
+        final int cell = levels[level];
+        levels[level] = next[cell];
+
+        final int x = cell % width;
+        if (x > 0)
+          result += flow(cell - 1, level, terrain, next, levels, visited);
+        if (x < width - 1)
+          result += flow(cell + 1, level, terrain, next, levels, visited);
+        if (cell >= width)
+          result += flow(cell - width, level, terrain, next, levels, visited);
+        if (cell < cells - width)
+          result += flow(cell + width, level, terrain, next, levels, visited);
+      }
+    return result;
+  }
+
+  private static void shore(final int cell, final Heights terrain, final int[] next, final int[] levels,
+      final long[] visited) {
+    visited[cell >>> 6] |= 1L << cell;
+    push(cell, terrain.height(cell), next, levels);
+  }
+
+  private static int flow(final int cell, final int level, final Heights terrain, final int[] next,
+      final int[] levels, final long[] visited) {
+    if ((visited[cell >>> 6] & 1L << cell) != 0)
+      return 0;
+    visited[cell >>> 6] |= 1L << cell;
+    final int cellHeight = terrain.height(cell);
+    if (cellHeight < level) {
+      push(cell, level, next, levels);
+      return level - cellHeight;
+    }
+    push(cell, cellHeight, next, levels);
+    return 0;
+  }
+
+  private static void push(final int cell, final int level, final int[] next, final int[] levels) {
+    next[cell] = levels[level];
+    levels[level] = cell;
+  }
+
+  private static void checkSize(final int length, final int width, final int height) {
+    if (width < 0 || height < 0 || (long) width * height != length)
+      throw new IllegalArgumentException("Wrong terrain size");
+  }
+
+  private static void checkHeight(final int height) {
+    if (height < 0 || height > MAX_TERRAIN_HEIGHT)
+      throw new IllegalArgumentException(String.format("Wrong terrain height value '%1$d'", height));
+  }
+
+  @FunctionalInterface
+  private interface Heights {
+
+    int height(final int cell);
+  }
+}
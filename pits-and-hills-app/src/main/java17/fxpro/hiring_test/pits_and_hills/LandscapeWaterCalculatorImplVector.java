@@ -0,0 +1,186 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Water above a column is bounded by the lower of its highest walls on the
+ * left and on the right. Left of the highest column that is the prefix
+ * maximum, right of it the suffix maximum, so the landscape is processed in
+ * three data-parallel passes over {@code int} lanes: validation with the
+ * search for the highest column, then the prefix maxima up to it and the
+ * suffix maxima down to it. Within a vector the running maximum is built in
+ * log2(lanes) shift-and-max steps and carried to the next vector broadcast
+ * across all lanes, so the loop never leaves vector registers.
+ * <p>
+ * Vectors carried between loop iterations start from
+ * {@code IntVector.zero(SPECIES)} rather than a constant field: C2 cannot
+ * eliminate the boxing of a loop phi fed by a constant vector object, which
+ * costs an allocation per iteration.
+ * <p>
+ * Under the limits of {@link LandscapeWaterCalculator} the total fits into an
+ * {@code int}, so the depths are summed lane-wise and reduced once.
+ * <p>
+ * Requires {@code --add-modules jdk.incubator.vector}; obtain it through
+ * {@link LandscapeWaterCalculators#vectorOrScalar()}.
+ */
+public class LandscapeWaterCalculatorImplVector implements LandscapeWaterCalculator {
+
+  static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  private static final int LANES = SPECIES.length();
+  private static final VectorShuffle<Integer> FIRST = VectorShuffle.iota(SPECIES, 0, 0, true);
+  private static final VectorShuffle<Integer> LAST = VectorShuffle.iota(SPECIES, LANES - 1, 0, true);
+
+  // step k shifts by 2^k: lane i takes lane i - shift (prefix) or i + shift
+  // (suffix), lanes shifted in from outside the vector are zero; the species
+  // length is a power of two, so log2(lanes) steps cover every lane count
+  private static final int STEPS = Integer.numberOfTrailingZeros(LANES);
+  private static final VectorShuffle<Integer>[] UP = shuffles(-1);
+  private static final VectorMask<Integer>[] FROM = masks(-1);
+  private static final VectorShuffle<Integer>[] DOWN = shuffles(1);
+  private static final VectorMask<Integer>[] UNTIL = masks(1);
+
+  public long calculateWaterAmount(final int[] landscape) {
+    return calculateWaterAmount(landscape, 0, landscape.length);
+  }
+
+  @Override
+  public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+
+    if (offset < 0 || length < 0 || offset > landscape.length - length)
+      throw new IndexOutOfBoundsException();
+
+    if (length > LandscapeWaterCalculatorImplTwoPointers.MAX_LANDSCAPE_LENGTH)
+      throw new IllegalArgumentException("Wrong landscape length");
+
+    if (length < 3)
+      return 0;
+
+    final int end = offset + length;
+    final int peak = peak(landscape, offset, end);
+    return leftOfPeak(landscape, offset, peak) + rightOfPeak(landscape, peak + 1, end);
+  }
+
+  /**
+   * Validates the heights of {@code [from, to)}.
+   *
+   * @return leftmost highest column
+   */
+  private static int peak(final int[] landscape, final int from, final int to) {
+    final IntVector maxHeight = IntVector.broadcast(SPECIES,
+        LandscapeWaterCalculatorImplTwoPointers.MAX_LANDSCAPE_HEIGHT);
+    IntVector max = IntVector.zero(SPECIES);
+    int column = from;
+    for (final int bound = to - LANES; column <= bound; column += LANES) {
+      final IntVector heights = IntVector.fromArray(SPECIES, landscape, column);
+      if (heights.compare(VectorOperators.UNSIGNED_GT, maxHeight).anyTrue())
+        invalidHeight(landscape, column, column + LANES);
+      max = max.max(heights);
+    }
+    int peakHeight = max.reduceLanes(VectorOperators.MAX);
+    for (; column < to; column++)
+      peakHeight = Math.max(peakHeight, LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[column]));
+
+    column = from;
+    for (final int bound = to - LANES; column <= bound; column += LANES) {
+      final int lane = IntVector.fromArray(SPECIES, landscape, column).eq(peakHeight).firstTrue();
+      if (lane < LANES)
+        return column + lane;
+    }
+    while (landscape[column] != peakHeight)
+      column++;
+    return column;
+  }
+
+  private static void invalidHeight(final int[] landscape, final int from, final int to) {
+    for (int column = from; column < to; column++)
+      LandscapeWaterCalculatorImplTwoPointers.checkHeight(landscape[column]);
+  }
+
+  /**
+   * @return water above {@code [from, to)}, bounded by the prefix maxima
+   */
+  private static long leftOfPeak(final int[] landscape, final int from, final int to) {
+    IntVector depths = IntVector.zero(SPECIES);
+    IntVector walls = IntVector.zero(SPECIES);
+    int column = from;
+    for (final int bound = to - LANES; column <= bound; column += LANES) {
+      final IntVector heights = IntVector.fromArray(SPECIES, landscape, column);
+      final IntVector maxima = prefixMaxima(heights).max(walls);
+      depths = depths.add(maxima.sub(heights));
+      walls = maxima.rearrange(LAST);
+    }
+
+    int result = depths.reduceLanes(VectorOperators.ADD);
+    int wall = walls.lane(0);
+    for (; column < to; column++) {
+      wall = Math.max(wall, landscape[column]);
+      result += wall - landscape[column];
+    }
+    return result;
+  }
+
+  /**
+   * @return water above {@code [from, to)}, bounded by the suffix maxima
+   */
+  private static long rightOfPeak(final int[] landscape, final int from, final int to) {
+    IntVector depths = IntVector.zero(SPECIES);
+    IntVector walls = IntVector.zero(SPECIES);
+    int column = to - LANES;
+    for (; column >= from; column -= LANES) {
+      final IntVector heights = IntVector.fromArray(SPECIES, landscape, column);
+      final IntVector maxima = suffixMaxima(heights).max(walls);
+      depths = depths.add(maxima.sub(heights));
+      walls = maxima.rearrange(FIRST);
+    }
+
+    int result = depths.reduceLanes(VectorOperators.ADD);
+    int wall = walls.lane(0);
+    for (column += LANES - 1; column >= from; column--) {
+      wall = Math.max(wall, landscape[column]);
+      result += wall - landscape[column];
+    }
+    return result;
+  }
+
+  private static IntVector prefixMaxima(IntVector heights) {
+    for (int step = 0; step < STEPS; step++)
+      heights = heights.max(heights.rearrange(UP[step], FROM[step]));
+    return heights;
+  }
+
+  private static IntVector suffixMaxima(IntVector heights) {
+    for (int step = 0; step < STEPS; step++)
+      heights = heights.max(heights.rearrange(DOWN[step], UNTIL[step]));
+    return heights;
+  }
+
+  /**
+   * @param direction -1 to shift lanes up, 1 to shift them down
+   */
+  @SuppressWarnings("unchecked")
+  private static VectorShuffle<Integer>[] shuffles(final int direction) {
+    final VectorShuffle<Integer>[] result = new VectorShuffle[STEPS];
+    for (int step = 0; step < STEPS; step++)
+      result[step] = VectorShuffle.iota(SPECIES, direction << step, 1, true);
+    return result;
+  }
+
+  /**
+   * @param direction -1 for the lanes a shift up fills, 1 for a shift down
+   */
+  @SuppressWarnings("unchecked")
+  private static VectorMask<Integer>[] masks(final int direction) {
+    final VectorMask<Integer>[] result = new VectorMask[STEPS];
+    for (int step = 0; step < STEPS; step++) {
+      final int shift = 1 << step;
+      result[step] = direction < 0 ? SPECIES.indexInRange(-shift, LANES - shift)
+          : SPECIES.indexInRange(0, LANES - shift);
+    }
+    return result;
+  }
+}
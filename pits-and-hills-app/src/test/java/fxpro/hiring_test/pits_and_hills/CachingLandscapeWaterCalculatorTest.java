@@ -0,0 +1,259 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CachingLandscapeWaterCalculatorTest {
+
+  @Test
+  public void givenSameLandscapeTwice_whenCalculate_thenSecondCallIsHit() {
+
+    // given
+    final CachingLandscapeWaterCalculator calculator = new CachingLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), 16);
+    final int[] landscape = { 5, 2, 3, 4, 5, 4, 0, 3, 1 };
+
+    // when
+    final long first = calculator.calculateWaterAmount(landscape);
+    final long second = calculator.calculateWaterAmount(landscape.clone());
+
+    // then
+    assertThat(first)
+        .isEqualTo(second)
+        .isEqualTo(9);
+    assertThat(calculator.missCount())
+        .isEqualTo(1);
+    assertThat(calculator.hitCount())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void givenSameHeightsOfAnotherType_whenCalculate_thenSecondCallIsHit() {
+
+    // given
+    final CachingLandscapeWaterCalculator calculator = new CachingLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), 16);
+    calculator.calculateWaterAmount(new short[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // when
+    final long fromBytes = calculator.calculateWaterAmount(new byte[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+    final long fromInts = calculator.calculateWaterAmount(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // then
+    assertThat(fromBytes)
+        .isEqualTo(fromInts)
+        .isEqualTo(9);
+    assertThat(calculator.missCount())
+        .isEqualTo(1);
+    assertThat(calculator.hitCount())
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void givenLandscapeChangedAfterCalculation_whenCalculate_thenReturnNewValue() {
+
+    // given
+    final CachingLandscapeWaterCalculator calculator = new CachingLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), 16);
+    final int[] landscape = { 5, 2, 3, 4, 5, 4, 0, 3, 1 };
+    calculator.calculateWaterAmount(landscape);
+
+    // when
+    landscape[1] = 5;
+    final long amount = calculator.calculateWaterAmount(landscape);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(6);
+    assertThat(calculator.missCount())
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void givenMoreLandscapesThanEntries_whenCalculate_thenEvictLeastRecentlyUsed() {
+
+    // given
+    final CachingLandscapeWaterCalculator calculator = new CachingLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), 2, 1);
+    final int[] first = { 3, 0, 3 };
+    final int[] second = { 2, 0, 2 };
+    final int[] third = { 1, 0, 1 };
+
+    // when
+    calculator.calculateWaterAmount(first);
+    calculator.calculateWaterAmount(second);
+    calculator.calculateWaterAmount(first);
+    calculator.calculateWaterAmount(third);
+    calculator.calculateWaterAmount(first);
+    calculator.calculateWaterAmount(second);
+
+    // then
+    assertThat(calculator.hitCount())
+        .isEqualTo(2);
+    assertThat(calculator.missCount())
+        .isEqualTo(4);
+    assertThat(calculator.evictionCount())
+        .isEqualTo(2);
+    assertThat(calculator.size())
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void givenMaxBytes_whenCalculateLongLandscapes_thenRetainAtMostMaxBytes() {
+
+    // given
+    final long maxBytes = 4 * CachingLandscapeWaterCalculator.entryBytes(32_000);
+    final CachingLandscapeWaterCalculator calculator = CachingLandscapeWaterCalculator.withMaxBytes(
+        new LandscapeWaterCalculatorImplTwoPointers(), maxBytes, 1);
+    final int[] landscape = new int[32_000];
+
+    // when
+    for (int i = 0; i < 10; i++) {
+      landscape[0] = i;
+      calculator.calculateWaterAmount(landscape);
+    }
+
+    // then
+    assertThat(calculator.size())
+        .isEqualTo(3);
+    assertThat(calculator.retainedBytes())
+        .isLessThanOrEqualTo(maxBytes);
+    assertThat(calculator.evictionCount())
+        .isEqualTo(7);
+  }
+
+  @Test
+  public void givenLandscapeAboveMaxBytes_whenCalculate_thenDoNotCache() {
+
+    // given
+    final CachingLandscapeWaterCalculator calculator = CachingLandscapeWaterCalculator.withMaxBytes(
+        new LandscapeWaterCalculatorImplTwoPointers(), CachingLandscapeWaterCalculator.entryBytes(100), 1);
+    calculator.calculateWaterAmount(new int[] { 3, 0, 3 });
+
+    // when
+    final long amount = calculator.calculateWaterAmount(new int[1_000]);
+
+    // then
+    assertThat(amount)
+        .isZero();
+    assertThat(calculator.size())
+        .isEqualTo(1);
+    assertThat(calculator.evictionCount())
+        .isZero();
+  }
+
+  @Test
+  public void givenLargeMaxBytes_whenCreate_thenAllocateSlotsLazily() {
+
+    // when
+    final CachingLandscapeWaterCalculator calculator = CachingLandscapeWaterCalculator.withMaxBytes(
+        new LandscapeWaterCalculatorImplTwoPointers(), 1L << 32);
+
+    // then
+    assertThat(calculator.retainedBytes())
+        .isLessThan(1 << 16);
+  }
+
+  @Test
+  public void givenManyLandscapes_whenCalculate_thenGrowSlotsAndKeepEntries() {
+
+    // given
+    final CachingLandscapeWaterCalculator calculator = new CachingLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), 1_000, 1);
+    for (int i = 0; i < 1_000; i++)
+      calculator.calculateWaterAmount(new int[] { i, 0, i });
+
+    // when
+    for (int i = 0; i < 1_000; i++)
+      calculator.calculateWaterAmount(new int[] { i, 0, i });
+
+    // then
+    assertThat(calculator.hitCount())
+        .isEqualTo(1_000);
+    assertThat(calculator.evictionCount())
+        .isZero();
+  }
+
+  @Test
+  public void givenMaxBytesBelowOneEntry_whenCreate_thenThrowException() {
+
+    // when
+    final Throwable thrown = catchThrowable(() -> CachingLandscapeWaterCalculator.withMaxBytes(
+        new LandscapeWaterCalculatorImplTwoPointers(), CachingLandscapeWaterCalculator.ENTRY_BYTES - 1));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Wrong max bytes");
+  }
+
+  @Test
+  public void givenManyThreads_whenCalculate_thenReturnSameValuesAsDelegate() throws InterruptedException {
+
+    // given
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplArrays();
+    final CachingLandscapeWaterCalculator calculator = new CachingLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), 32);
+    final int[][] landscapes = new int[100][];
+    final Random random = new Random(42);
+    for (int i = 0; i < landscapes.length; i++) {
+      landscapes[i] = new int[random.nextInt(50)];
+      for (int column = 0; column < landscapes[i].length; column++)
+        landscapes[i][column] = random.nextInt(20);
+    }
+    final Throwable[] failures = new Throwable[4];
+
+    // when
+    final Thread[] threads = new Thread[failures.length];
+    for (int t = 0; t < threads.length; t++) {
+      final int index = t;
+      threads[t] = new Thread(() -> {
+        try {
+          final Random order = new Random(index);
+          for (int call = 0; call < 10_000; call++) {
+            final int[] landscape = landscapes[order.nextInt(landscapes.length)];
+            assertThat(calculator.calculateWaterAmount(landscape))
+                .isEqualTo(reference.calculateWaterAmount(landscape));
+          }
+        } catch (Throwable e) {
+          failures[index] = e;
+        }
+      });
+      threads[t].start();
+    }
+    for (final Thread thread : threads)
+      thread.join();
+
+    // then
+    assertThat(failures)
+        .containsOnlyNulls();
+    assertThat(calculator.size())
+        .isLessThanOrEqualTo(32);
+    assertThat(calculator.hitCount() + calculator.missCount())
+        .isEqualTo(40_000);
+  }
+
+  @Test
+  public void givenInvalidLandscape_whenCalculateTwice_thenThrowBothTimes() {
+
+    // given
+    final CachingLandscapeWaterCalculator calculator = new CachingLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), 16);
+    final int[] landscape = { 5, -1, 5 };
+    catchThrowable(() -> calculator.calculateWaterAmount(landscape));
+
+    // when
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterAmount(landscape));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasNoCause();
+    assertThat(calculator.size())
+        .isZero();
+  }
+}
@@ -0,0 +1,113 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+public class InstrumentedLandscapeWaterCalculatorTest {
+
+  @Test
+  public void givenAcceptedAndRejectedCalls_whenSnapshot_thenCountThemSeparately() {
+
+    // given
+    final LandscapeWaterMetrics metrics = new LandscapeWaterMetrics();
+    final LandscapeWaterCalculator calculator = new InstrumentedLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), metrics);
+
+    // when
+    final long amount = calculator.calculateWaterAmount(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+    calculator.calculateWaterAmount(new int[100]);
+    calculator.calculateWaterAmount(new int[] { 0, 0, 1, 0, 2 }, 1, 3);
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterAmount(new int[] { 1, -1, 1 }));
+    final LandscapeWaterMetrics.Snapshot snapshot = metrics.snapshot();
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(snapshot.calls())
+        .isEqualTo(3);
+    assertThat(snapshot.rejectedCalls())
+        .isEqualTo(1);
+    assertThat(snapshot.lengths().max())
+        .isEqualTo(100);
+    assertThat(snapshot.lengths().percentile(50))
+        .isEqualTo(9);
+    assertThat(snapshot.callsPerSecond())
+        .isPositive();
+  }
+
+  @Test
+  public void givenUniformValues_whenPercentile_thenReturnValueWithinBucketPrecision() {
+
+    // given
+    final LogLinearHistogram histogram = new LogLinearHistogram();
+    for (long value = 1; value <= 100_000; value++)
+      histogram.record(value);
+
+    // when
+    final LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+
+    // then
+    assertThat(snapshot.count())
+        .isEqualTo(100_000);
+    assertThat(snapshot.max())
+        .isEqualTo(100_000);
+    assertThat(snapshot.percentile(50))
+        .isBetween(50_000L, 50_000L + 50_000L / LogLinearHistogram.SUB_BUCKETS);
+    assertThat(snapshot.percentile(99.9))
+        .isBetween(99_900L, 100_000L);
+    assertThat(snapshot.percentile(100))
+        .isEqualTo(100_000);
+  }
+
+  @Test
+  public void givenEveryBucket_whenHighestValue_thenNextBucketStartsRightAfterIt() {
+
+    for (int bucket = 0; bucket < LogLinearHistogram.BUCKETS - 1; bucket++) {
+      final long highest = LogLinearHistogram.highestValue(bucket);
+      assertThat(LogLinearHistogram.bucket(highest))
+          .isEqualTo(bucket);
+      assertThat(LogLinearHistogram.bucket(highest + 1))
+          .isEqualTo(bucket + 1);
+    }
+    assertThat(LogLinearHistogram.highestValue(LogLinearHistogram.BUCKETS - 1))
+        .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void givenRegisteredMetrics_whenReadOverJmx_thenReturnCurrentValues() throws Exception {
+
+    // given
+    final LandscapeWaterMetrics metrics = new LandscapeWaterMetrics();
+    final LandscapeWaterCalculator calculator = new InstrumentedLandscapeWaterCalculator(
+        new LandscapeWaterCalculatorImplTwoPointers(), metrics);
+    final ObjectName name = metrics.register("test");
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    try {
+      // when
+      calculator.calculateWaterAmount(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+      catchThrowable(() -> calculator.calculateWaterAmount(new int[32_001]));
+
+      // then
+      assertThat(server.getAttribute(name, "Calls"))
+          .isEqualTo(1L);
+      assertThat(server.getAttribute(name, "RejectedCalls"))
+          .isEqualTo(1L);
+      assertThat(server.getAttribute(name, "LengthMax"))
+          .isEqualTo(9L);
+      assertThat((Long) server.getAttribute(name, "LatencyP999Nanos"))
+          .isPositive();
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LandscapeBatchProcessorTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void givenBatchFile_whenProcess_thenWriteAmountOfEveryRecordInOrder() throws Exception {
+
+    // given
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    final int records = LandscapeBatchProcessor.OUTPUT_BUFFER_BYTES / Long.BYTES + 100;
+    final long[] expected = new long[records];
+    final Path input = directory.resolve("batch.bin");
+    try (LandscapeBatchWriter writer = new LandscapeBatchWriter(
+        FileChannel.open(input, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), HeightEncoding.INT32,
+        true)) {
+      for (int i = 0; i < records; i++) {
+        final int[] landscape = new int[random.nextInt(100)];
+        for (int column = 0; column < landscape.length; column++)
+          landscape[column] = random.nextInt(32_001);
+        writer.write(landscape);
+        expected[i] = reference.calculateWaterAmount(landscape);
+      }
+    }
+    final Path output = directory.resolve("amounts.bin");
+
+    // when
+    final LandscapeBatchProcessor.Report report = LandscapeBatchProcessor.process(input, output,
+        LandscapeBatchProcessor.calculator("LandscapeWaterCalculatorImplTwoPointers"));
+
+    // then
+    assertThat(report.records())
+        .isEqualTo(records);
+    assertThat(report.bytes())
+        .isEqualTo(Files.size(input));
+    final ByteBuffer amounts = ByteBuffer.wrap(Files.readAllBytes(output)).order(ByteOrder.LITTLE_ENDIAN);
+    final long[] actual = new long[amounts.remaining() / Long.BYTES];
+    amounts.asLongBuffer().get(actual);
+    assertThat(actual)
+        .isEqualTo(expected);
+  }
+
+  @Test
+  public void givenRecordRejectedByCalculator_whenProcess_thenThrowIllegalArgumentException() throws IOException {
+
+    // given
+    final Path input = directory.resolve("batch.bin");
+    try (LandscapeBatchWriter writer = new LandscapeBatchWriter(
+        FileChannel.open(input, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), HeightEncoding.INT16,
+        false)) {
+      writer.write(new int[] { 3, 0, 3 });
+      writer.write(new int[] { 3, -1, 3 });
+    }
+
+    // when
+    final Throwable thrown = catchThrowable(() -> LandscapeBatchProcessor.process(input,
+        directory.resolve("amounts.bin"), new LandscapeWaterCalculatorImplTwoPointers()));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Wrong record 1")
+        .hasStackTraceContaining("Wrong landscape height value '-1'");
+  }
+}
@@ -0,0 +1,211 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class LandscapeBatchReaderTest {
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest(name = "{index} using {0}")
+  @EnumSource(HeightEncoding.class)
+  public void givenRandomBatch_whenReadInSmallBuffers_thenReturnWrittenRecords(HeightEncoding encoding)
+      throws IOException {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    for (final boolean checksummed : new boolean[] { false, true }) {
+
+      // given
+      final int[][] landscapes = new int[200][];
+      for (int i = 0; i < landscapes.length; i++) {
+        landscapes[i] = new int[random.nextInt(500)];
+        for (int column = 0; column < landscapes[i].length; column++)
+          landscapes[i][column] = random.nextInt(32_001);
+      }
+      final Path file = directory.resolve(encoding + "-" + checksummed + ".bin");
+      try (LandscapeBatchWriter writer = new LandscapeBatchWriter(
+          FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), encoding, checksummed,
+          64)) {
+        for (final int[] landscape : landscapes)
+          writer.write(landscape);
+      }
+
+      // when
+      try (LandscapeBatchReader reader = new LandscapeBatchReader(FileChannel.open(file), 64)) {
+
+        // then
+        assertThat(reader.encoding())
+            .isEqualTo(encoding);
+        assertThat(reader.checksummed())
+            .isEqualTo(checksummed);
+        for (final int[] landscape : landscapes) {
+          assertThat(reader.next())
+              .isTrue();
+          assertThat(reader.heights())
+              .isEqualTo(landscape);
+          assertThat(reader.calculateWaterAmount(reference))
+              .isEqualTo(reference.calculateWaterAmount(landscape));
+        }
+        assertThat(reader.next())
+            .isFalse();
+        assertThat(reader.records())
+            .isEqualTo(landscapes.length);
+        assertThat(reader.bytesRead())
+            .isEqualTo(Files.size(file));
+      }
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {0}")
+  @EnumSource(HeightEncoding.class)
+  public void givenChosenCalculator_whenCalculate_thenCallItForEveryRecord(HeightEncoding encoding)
+      throws IOException {
+
+    // given
+    final LandscapeWaterCalculatorDecoratorTest.CountingCalculator calculator =
+        new LandscapeWaterCalculatorDecoratorTest.CountingCalculator(new LandscapeWaterCalculatorImplArrays());
+    final int[][] landscapes = { { 5, 2, 3, 4, 5, 4, 0, 3, 1 }, { 3, 0, 3 }, {}, { 1, 0, 2, 0, 1 } };
+    final Path file = directory.resolve(encoding + ".bin");
+    try (LandscapeBatchWriter writer = new LandscapeBatchWriter(
+        FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), encoding, false)) {
+      for (final int[] landscape : landscapes)
+        writer.write(landscape);
+    }
+
+    // when
+    final long[] amounts = new long[landscapes.length];
+    try (LandscapeBatchReader reader = new LandscapeBatchReader(FileChannel.open(file))) {
+      for (int i = 0; reader.next(); i++)
+        amounts[i] = reader.calculateWaterAmount(calculator);
+    }
+
+    // then
+    assertThat(amounts)
+        .containsExactly(9, 3, 0, 2);
+    assertThat(calculator.ranges)
+        .isEqualTo(landscapes.length);
+    assertThat(calculator.total())
+        .isEqualTo(landscapes.length);
+  }
+
+  @Test
+  public void givenCorruptedRecord_whenRead_thenThrowIllegalArgumentException() throws IOException {
+
+    // given
+    final Path file = write(HeightEncoding.INT32, true, new int[] { 5, 2, 3, 4, 5 }, new int[] { 3, 0, 3 });
+    final byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - 10] ^= 1;
+    Files.write(file, bytes);
+
+    // when
+    final Throwable thrown = catchThrowable(() -> {
+      try (LandscapeBatchReader reader = new LandscapeBatchReader(FileChannel.open(file))) {
+        while (reader.next()) {
+          // reads every record
+        }
+      }
+    });
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong checksum of record 1")
+        .hasNoCause();
+  }
+
+  @Test
+  public void givenTruncatedBatch_whenRead_thenThrowIllegalArgumentException() throws IOException {
+
+    // given
+    final Path file = write(HeightEncoding.INT16, false, new int[] { 5, 2, 3, 4, 5 });
+    final byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+    // when
+    final Throwable thrown = catchThrowable(() -> {
+      try (LandscapeBatchReader reader = new LandscapeBatchReader(FileChannel.open(file))) {
+        reader.next();
+      }
+    });
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Truncated record 0")
+        .hasNoCause();
+  }
+
+  @Test
+  public void givenFileWithoutHeader_whenOpen_thenThrowIllegalArgumentException() throws IOException {
+
+    // given
+    final Path file = directory.resolve("plain.bin");
+    Files.write(file, new byte[] { 5, 0, 0, 0, 2, 0, 0, 0, 5, 0, 0, 0 });
+
+    // when
+    final Throwable thrown = catchThrowable(() -> new LandscapeBatchReader(FileChannel.open(file)).close());
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong batch header")
+        .hasNoCause();
+  }
+
+  @Test
+  public void givenHeightBeyondInt16_whenWrite_thenThrowIllegalArgumentExceptionAndKeepPreviousRecords()
+      throws IOException {
+
+    // given
+    final Path file = directory.resolve("int16.bin");
+    final Throwable thrown;
+    try (LandscapeBatchWriter writer = new LandscapeBatchWriter(
+        FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), HeightEncoding.INT16,
+        false)) {
+      writer.write(new int[] { 3, 0, 3 });
+
+      // when
+      thrown = catchThrowable(() -> writer.write(new int[] { 3, 40_000, 3 }));
+    }
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape height value '40000'")
+        .hasNoCause();
+    try (LandscapeBatchReader reader = new LandscapeBatchReader(FileChannel.open(file))) {
+      assertThat(reader.next())
+          .isTrue();
+      assertThat(reader.heights())
+          .containsExactly(3, 0, 3);
+      assertThat(reader.next())
+          .isFalse();
+    }
+  }
+
+  private Path write(final HeightEncoding encoding, final boolean checksummed, final int[]... landscapes)
+      throws IOException {
+    final Path file = directory.resolve("batch.bin");
+    try (LandscapeBatchWriter writer = new LandscapeBatchWriter(
+        FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), encoding, checksummed)) {
+      for (final int[] landscape : landscapes)
+        writer.write(landscape);
+    }
+    return file;
+  }
+}
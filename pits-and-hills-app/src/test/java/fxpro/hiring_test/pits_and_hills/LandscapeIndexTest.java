@@ -0,0 +1,64 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LandscapeIndexTest {
+
+  @Test
+  public void givenLandscapeVariantFromTheTask_whenWaterAmount_thenReturnCorrectValue() {
+
+    // given
+    final LandscapeIndex index = new LandscapeIndex(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // when
+    final long whole = index.waterAmount();
+    final long window = index.waterAmount(0, 3);
+
+    // then
+    assertThat(whole)
+        .isEqualTo(9);
+    assertThat(window)
+        .isEqualTo(3);
+  }
+
+  @Test
+  public void givenRandomLandscape_whenWaterAmountOfEveryRange_thenReturnSameValueAsCalculator() {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 20; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(150)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(attempt % 2 == 0 ? 5 : 1_000);
+      final LandscapeIndex index = new LandscapeIndex(landscape);
+
+      for (int from = 0; from < landscape.length; from++)
+        for (int to = from; to < landscape.length; to++)
+
+          // then
+          assertThat(index.waterAmount(from, to))
+              .isEqualTo(reference.calculateWaterAmount(landscape, from, to - from + 1));
+    }
+  }
+
+  @Test
+  public void givenReversedRange_whenWaterAmount_thenThrowIndexOutOfBoundsException() {
+
+    // given
+    final LandscapeIndex index = new LandscapeIndex(new int[] { 3, 0, 3 });
+
+    // when
+    final Throwable thrown = catchThrowable(() -> index.waterAmount(2, 1));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+}
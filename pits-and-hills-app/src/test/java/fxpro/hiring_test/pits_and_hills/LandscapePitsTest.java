@@ -0,0 +1,93 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import fxpro.hiring_test.pits_and_hills.LandscapePits.Pit;
+
+public class LandscapePitsTest {
+
+  @Test
+  public void givenLandscapeVariantFromTheTask_whenEnumerate_thenReturnPitsInScanOrder() {
+
+    // when
+    final List<Pit> pits = LandscapePits.stream(new int[] { 1, 0, 2, 2, 5, 2, 3, 4, 5, 4, 0, 3, 1 })
+        .collect(Collectors.toList());
+
+    // then
+    assertThat(pits)
+        .containsExactly(new Pit(1, 1, 1, 1, 1), new Pit(10, 10, 3, 3, 3), new Pit(5, 7, 5, 3, 6));
+  }
+
+  @Test
+  public void givenRandomLandscapes_whenEnumerate_thenPitsCoverWaterProfileExactly() {
+
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 300; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(300)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(attempt % 2 == 0 ? 6 : 32_001);
+      final int[] expected = new int[landscape.length];
+      LandscapeWaterProfiles.calculateWaterProfile(landscape, expected);
+
+      // when
+      final int[] depths = new int[landscape.length];
+      final LandscapePits pits = LandscapePits.of(landscape);
+      while (pits.next()) {
+        long volume = 0;
+        long maxDepth = 0;
+        for (int column = pits.start(); column <= pits.end(); column++) {
+          depths[column] = pits.level() - landscape[column];
+          volume += depths[column];
+          maxDepth = Math.max(maxDepth, depths[column]);
+        }
+
+        // then
+        assertThat(pits.volume())
+            .isEqualTo(volume);
+        assertThat(pits.maxDepth())
+            .isEqualTo(maxDepth);
+        assertThat(pits.start() == 0 || expected[pits.start() - 1] == 0)
+            .isTrue();
+        assertThat(pits.end() == landscape.length - 1 || expected[pits.end() + 1] == 0)
+            .isTrue();
+      }
+      assertThat(depths)
+          .isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void givenRandomLandscapes_whenTopK_thenReturnSameAsSortingAllPits() {
+
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 100; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(2_000)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(100);
+      final Comparator<Pit> comparator = (attempt % 2 == 0 ? Pit.BY_VOLUME : Pit.BY_MAX_DEPTH)
+          .thenComparingInt(Pit::start);
+      final int k = random.nextInt(10);
+
+      // when
+      final List<Pit> top = LandscapePits.topK(landscape, k, comparator);
+
+      // then
+      assertThat(top)
+          .isEqualTo(LandscapePits.stream(landscape)
+              .sorted(comparator.reversed())
+              .limit(k)
+              .collect(Collectors.toList()));
+    }
+  }
+}
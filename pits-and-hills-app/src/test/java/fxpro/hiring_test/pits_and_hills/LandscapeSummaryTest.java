@@ -0,0 +1,120 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LandscapeSummaryTest {
+
+  @Test
+  public void givenLandscapeVariantFromTheTaskInShards_whenMerge_thenReturnCorrectValue() {
+
+    // given
+    final int[] landscape = { 5, 2, 3, 4, 5, 4, 0, 3, 1 };
+
+    // when
+    final LandscapeSummary summary = LandscapeSummary.merge(LandscapeSummary.of(landscape, 0, 2),
+        LandscapeSummary.of(landscape, 2, 5), LandscapeSummary.of(landscape, 7, 2));
+
+    // then
+    assertThat(summary.waterAmount())
+        .isEqualTo(9);
+    assertThat(summary.length())
+        .isEqualTo(9);
+    assertThat(summary.max())
+        .isEqualTo(5);
+  }
+
+  @Test
+  public void givenRandomShards_whenMergeInAnyGrouping_thenReturnSameSummaryAsWholeLandscape() throws IOException {
+
+    final LargeLandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 300; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(200)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = attempt % 3 == 0 ? random.nextInt() : random.nextInt(attempt % 3 == 1 ? 5 : 32_001);
+      final int first = random.nextInt(landscape.length + 1);
+      final int second = first + random.nextInt(landscape.length - first + 1);
+      final LandscapeSummary a = LandscapeSummary.of(landscape, 0, first);
+      final LandscapeSummary b = LandscapeSummary.of(landscape, first, second - first);
+      final LandscapeSummary c = LandscapeSummary.of(landscape, second, landscape.length - second);
+
+      // when
+      final LandscapeSummary leftFirst = LandscapeSummary.merge(LandscapeSummary.merge(a, b), c);
+      final LandscapeSummary rightFirst = LandscapeSummary.merge(a, LandscapeSummary.merge(b, c));
+
+      // then
+      final LandscapeSummary whole = LandscapeSummary.of(landscape);
+      assertThat(bytes(leftFirst))
+          .isEqualTo(bytes(whole));
+      assertThat(bytes(rightFirst))
+          .isEqualTo(bytes(whole));
+      assertThat(whole.waterAmount())
+          .isEqualTo(reference.calculateLargeWaterAmount(landscape));
+    }
+  }
+
+  @Test
+  public void givenSummary_whenWrittenAndRead_thenMergeAsOriginal() throws IOException, ClassNotFoundException {
+
+    // given
+    final LandscapeSummary left = LandscapeSummary.of(new int[] { 5, 2, 3, 4 });
+    final LandscapeSummary right = LandscapeSummary.of(new int[] { 5, 4, 0, 3, 1 });
+    final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(serialized)) {
+      output.writeObject(left);
+    }
+
+    // when
+    final LandscapeSummary deserialized;
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+      deserialized = (LandscapeSummary) input.readObject();
+    }
+    final LandscapeSummary read = LandscapeSummary
+        .readFrom(new DataInputStream(new ByteArrayInputStream(bytes(right))));
+
+    // then
+    assertThat(LandscapeSummary.merge(deserialized, read).waterAmount())
+        .isEqualTo(9);
+  }
+
+  @Test
+  public void givenUnorderedSteps_whenRead_thenThrowIllegalArgumentException() throws IOException {
+
+    // given
+    final byte[] bytes = bytes(LandscapeSummary.of(new int[] { 1, 2, 3 }));
+    // height of the second step seen from the left
+    bytes[4 * Long.BYTES + 2 * Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES - 1] = 0;
+
+    // when
+    final Throwable thrown = catchThrowable(
+        () -> LandscapeSummary.readFrom(new DataInputStream(new ByteArrayInputStream(bytes))));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape summary")
+        .hasNoCause();
+  }
+
+  private static byte[] bytes(final LandscapeSummary summary) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      summary.writeTo(output);
+    }
+    return bytes.toByteArray();
+  }
+}
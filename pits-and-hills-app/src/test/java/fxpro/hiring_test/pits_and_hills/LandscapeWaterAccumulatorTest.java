@@ -0,0 +1,61 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LandscapeWaterAccumulatorTest {
+
+  @Test
+  public void givenLandscapeVariantFromTheTask_whenAcceptOneByOne_thenFinishReturnCorrectValue() {
+
+    // given
+    final LandscapeWaterAccumulator accumulator = new LandscapeWaterAccumulator();
+
+    // when
+    for (final int height : new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 })
+      accumulator.accept(height);
+
+    // then
+    assertThat(accumulator.length())
+        .isEqualTo(9);
+    assertThat(accumulator.finish())
+        .isEqualTo(9);
+    assertThat(accumulator.currentWaterAmount())
+        .isZero();
+  }
+
+  @Test
+  public void givenRandomLandscapes_whenAcceptInChunks_thenReturnSameValueAsCalculator() {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplArrays();
+    final LandscapeWaterAccumulator accumulator = new LandscapeWaterAccumulator();
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 200; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(1_000)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(100);
+
+      // when
+      long previous = 0;
+      for (int off = 0; off < landscape.length;) {
+        final int len = Math.min(landscape.length - off, random.nextInt(50));
+        accumulator.accept(landscape, off, len);
+        off += len;
+
+        // then
+        assertThat(accumulator.currentWaterAmount())
+            .isGreaterThanOrEqualTo(previous);
+        previous = accumulator.currentWaterAmount();
+      }
+
+      // then
+      assertThat(accumulator.finish())
+          .isEqualTo(reference.calculateWaterAmount(landscape));
+    }
+  }
+}
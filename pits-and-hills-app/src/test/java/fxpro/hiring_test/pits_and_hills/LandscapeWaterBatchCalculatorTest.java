@@ -0,0 +1,89 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class LandscapeWaterBatchCalculatorTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  private final LandscapeWaterBatchCalculator batchCalculator = new LandscapeWaterBatchCalculator(
+      LandscapeWaterCalculatorImplTwoPointers::new, executor, 4);
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void givenManyLandscapes_whenCalculate_thenReturnSameValuesAsCalculator() {
+
+    // given
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplArrays();
+    final Random random = new Random(42);
+    final int[][] landscapes = new int[1_000][];
+    final int[] offsets = new int[landscapes.length + 1];
+    for (int i = 0; i < landscapes.length; i++) {
+      landscapes[i] = new int[random.nextInt(30)];
+      for (int column = 0; column < landscapes[i].length; column++)
+        landscapes[i][column] = random.nextInt(20);
+      offsets[i + 1] = offsets[i] + landscapes[i].length;
+    }
+    final int[] heights = new int[offsets[landscapes.length]];
+    for (int i = 0; i < landscapes.length; i++)
+      System.arraycopy(landscapes[i], 0, heights, offsets[i], landscapes[i].length);
+
+    // when
+    final long[] amounts = batchCalculator.calculateWaterAmounts(landscapes);
+    final long[] flatAmounts = batchCalculator.calculateWaterAmounts(heights, offsets);
+
+    // then
+    for (int i = 0; i < landscapes.length; i++)
+      assertThat(amounts[i])
+          .isEqualTo(flatAmounts[i])
+          .isEqualTo(reference.calculateWaterAmount(landscapes[i]));
+  }
+
+  @Test
+  public void givenNegativeLandscapeValue_whenCalculate_thenThrowIllegalArgumentException() {
+
+    // given
+    final int[][] landscapes = new int[500][];
+    for (int i = 0; i < landscapes.length; i++)
+      landscapes[i] = new int[] { 1, 0, 1 };
+    landscapes[300] = new int[] { 1, 2, 3, 0, -100, 5 };
+
+    // when
+    final Throwable thrown = catchThrowable(() -> batchCalculator.calculateWaterAmounts(landscapes));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape height value")
+        .hasNoCause();
+  }
+
+  @Test
+  public void givenDecreasingOffsets_whenCalculate_thenThrowIllegalArgumentException() {
+
+    // given
+    final int[] heights = { 3, 0, 3, 2, 1, 2 };
+    final int[] offsets = { 0, 3, 2, 6 };
+
+    // when
+    final Throwable thrown = catchThrowable(() -> batchCalculator.calculateWaterAmounts(heights, offsets));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape offsets")
+        .hasNoCause();
+  }
+}
@@ -0,0 +1,65 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+public class LandscapeWaterCalculatorAllocationTest {
+
+  static class AllocationFreeImplementationsArgSource implements ArgumentsProvider {
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+      return Stream.of(
+          Arguments.of(new LandscapeWaterCalculatorImplArraysReusable(),
+              LandscapeWaterCalculatorImplArraysReusable.class.getSimpleName()),
+          Arguments.of(LandscapeWaterCalculatorImplArraysReusable.perThread(),
+              LandscapeWaterCalculatorImplArraysReusable.class.getSimpleName() + ".perThread()"),
+          Arguments.of(new LandscapeWaterCalculatorImplTwoPointers(),
+              LandscapeWaterCalculatorImplTwoPointers.class.getSimpleName()),
+          Arguments.of(new InstrumentedLandscapeWaterCalculator(new LandscapeWaterCalculatorImplTwoPointers(),
+              new LandscapeWaterMetrics()), InstrumentedLandscapeWaterCalculator.class.getSimpleName()));
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(AllocationFreeImplementationsArgSource.class)
+  public void givenWarmedUpCalculator_whenCalculate_thenAllocateZeroBytes(LandscapeWaterCalculator calculator,
+      String implName) {
+
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+        .getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+    // given
+    final Random random = new Random(42);
+    final int[][] landscapes = new int[16][];
+    for (int i = 0; i < landscapes.length; i++) {
+      landscapes[i] = new int[1 + random.nextInt(32_000)];
+      for (int column = 0; column < landscapes[i].length; column++)
+        landscapes[i][column] = random.nextInt(32_001);
+    }
+    final long threadId = Thread.currentThread().getId();
+    for (int i = 0; i < 2_000; i++)
+      calculator.calculateWaterAmount(landscapes[i % landscapes.length]);
+
+    // when
+    final long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < 1_000; i++)
+      calculator.calculateWaterAmount(landscapes[i % landscapes.length]);
+    final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+    // then
+    assertThat(allocated)
+        .isZero();
+  }
+}
@@ -0,0 +1,205 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+public class LandscapeWaterCalculatorDecoratorTest {
+
+  static class DecoratorsArgSource implements ArgumentsProvider {
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+      return Stream.of(
+          Arguments.of((Function<LandscapeWaterCalculator, LandscapeWaterCalculator>) delegate ->
+              new CachingLandscapeWaterCalculator(delegate, 64),
+              CachingLandscapeWaterCalculator.class.getSimpleName()),
+          Arguments.of((Function<LandscapeWaterCalculator, LandscapeWaterCalculator>) delegate ->
+              new InstrumentedLandscapeWaterCalculator(delegate, new LandscapeWaterMetrics()),
+              InstrumentedLandscapeWaterCalculator.class.getSimpleName()),
+          Arguments.of((Function<LandscapeWaterCalculator, LandscapeWaterCalculator>) delegate ->
+              new AdaptiveLandscapeWaterCalculator(delegate, delegate, 64),
+              AdaptiveLandscapeWaterCalculator.class.getSimpleName()));
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(DecoratorsArgSource.class)
+  public void givenShortHeights_whenCalculate_thenCallSameOverloadOfDelegate(
+      Function<LandscapeWaterCalculator, LandscapeWaterCalculator> decorator, String implName) {
+
+    // given
+    final CountingCalculator delegate = new CountingCalculator();
+    final LandscapeWaterCalculator calculator = decorator.apply(delegate);
+
+    // when
+    final long amount = calculator.calculateWaterAmount(new short[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    assertThat(delegate.shorts)
+        .isEqualTo(1);
+    assertThat(delegate.total())
+        .isEqualTo(1);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(DecoratorsArgSource.class)
+  public void givenByteHeights_whenCalculate_thenCallSameOverloadOfDelegate(
+      Function<LandscapeWaterCalculator, LandscapeWaterCalculator> decorator, String implName) {
+
+    // given
+    final CountingCalculator delegate = new CountingCalculator();
+    final LandscapeWaterCalculator calculator = decorator.apply(delegate);
+
+    // when
+    final long amount = calculator.calculateWaterAmount(new byte[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    assertThat(delegate.bytes)
+        .isEqualTo(1);
+    assertThat(delegate.total())
+        .isEqualTo(1);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(DecoratorsArgSource.class)
+  public void givenIntBuffer_whenCalculate_thenCallSameOverloadOfDelegate(
+      Function<LandscapeWaterCalculator, LandscapeWaterCalculator> decorator, String implName) {
+
+    // given
+    final CountingCalculator delegate = new CountingCalculator();
+    final LandscapeWaterCalculator calculator = decorator.apply(delegate);
+    final IntBuffer landscape = IntBuffer.wrap(new int[] { 7, 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // when
+    final long amount = calculator.calculateWaterAmount(landscape, 1, 9);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    assertThat(delegate.intBuffers)
+        .isEqualTo(1);
+    assertThat(delegate.total())
+        .isEqualTo(1);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(DecoratorsArgSource.class)
+  public void givenByteBuffer_whenCalculate_thenCallSameOverloadOfDelegate(
+      Function<LandscapeWaterCalculator, LandscapeWaterCalculator> decorator, String implName) {
+
+    // given
+    final CountingCalculator delegate = new CountingCalculator();
+    final LandscapeWaterCalculator calculator = decorator.apply(delegate);
+    final ByteBuffer landscape = ByteBuffer.allocateDirect(9 * Integer.BYTES);
+    for (final int height : new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 })
+      landscape.putInt(height);
+
+    // when
+    final long amount = calculator.calculateWaterAmount(landscape, 0, 9);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    assertThat(delegate.byteBuffers)
+        .isEqualTo(1);
+    assertThat(delegate.total())
+        .isEqualTo(1);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(DecoratorsArgSource.class)
+  public void givenRange_whenCalculate_thenCallSameOverloadOfDelegate(
+      Function<LandscapeWaterCalculator, LandscapeWaterCalculator> decorator, String implName) {
+
+    // given
+    final CountingCalculator delegate = new CountingCalculator();
+    final LandscapeWaterCalculator calculator = decorator.apply(delegate);
+
+    // when
+    final long amount = calculator.calculateWaterAmount(new int[] { 7, 5, 2, 3, 4, 5, 4, 0, 3, 1, 7 }, 1, 9);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    assertThat(delegate.ranges)
+        .isEqualTo(1);
+    assertThat(delegate.total())
+        .isEqualTo(1);
+  }
+
+  /**
+   * Counts the calls of every overload, each calculated by the same overload
+   * of the engine.
+   */
+  static final class CountingCalculator implements LandscapeWaterCalculator {
+
+    private final LandscapeWaterCalculator engine;
+    int ints;
+    int ranges;
+    int shorts;
+    int bytes;
+    int intBuffers;
+    int byteBuffers;
+
+    @Override
+    public long calculateWaterAmount(final int[] landscape) {
+      ints++;
+      return engine.calculateWaterAmount(landscape);
+    }
+
+    CountingCalculator() {
+      this(new LandscapeWaterCalculatorImplTwoPointers());
+    }
+
+    CountingCalculator(final LandscapeWaterCalculator engine) {
+      this.engine = engine;
+    }
+
+    @Override
+    public long calculateWaterAmount(final int[] landscape, final int offset, final int length) {
+      ranges++;
+      return engine.calculateWaterAmount(landscape, offset, length);
+    }
+
+    @Override
+    public long calculateWaterAmount(final short[] landscape) {
+      shorts++;
+      return engine.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(final byte[] landscape) {
+      bytes++;
+      return engine.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(final IntBuffer landscape, final int offset, final int length) {
+      intBuffers++;
+      return engine.calculateWaterAmount(landscape, offset, length);
+    }
+
+    @Override
+    public long calculateWaterAmount(final ByteBuffer landscape, final int offset, final int length) {
+      byteBuffers++;
+      return engine.calculateWaterAmount(landscape, offset, length);
+    }
+
+    int total() {
+      return ints + ranges + shorts + bytes + intBuffers + byteBuffers;
+    }
+  }
+}
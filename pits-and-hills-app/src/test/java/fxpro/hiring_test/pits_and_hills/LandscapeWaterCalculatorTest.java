@@ -3,8 +3,14 @@ package fxpro.hiring_test.pits_and_hills;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -22,7 +28,21 @@ public class LandscapeWaterCalculatorTest {
           Arguments.of(new LandscapeWaterCalculatorImplTreeMap(),
               LandscapeWaterCalculatorImplTreeMap.class.getSimpleName()),
           Arguments.of(new LandscapeWaterCalculatorImplHashMap(),
-              LandscapeWaterCalculatorImplHashMap.class.getSimpleName()));
+              LandscapeWaterCalculatorImplHashMap.class.getSimpleName()),
+          Arguments.of(new LandscapeWaterCalculatorImplTwoPointers(),
+              LandscapeWaterCalculatorImplTwoPointers.class.getSimpleName()),
+          Arguments.of(new LandscapeWaterCalculatorImplForkJoin(ForkJoinPool.commonPool(), 4),
+              LandscapeWaterCalculatorImplForkJoin.class.getSimpleName()),
+          Arguments.of(new LandscapeWaterCalculatorImplArraysReusable(),
+              LandscapeWaterCalculatorImplArraysReusable.class.getSimpleName()),
+          Arguments.of(new CachingLandscapeWaterCalculator(new LandscapeWaterCalculatorImplTwoPointers(), 64),
+              CachingLandscapeWaterCalculator.class.getSimpleName()),
+          Arguments.of(new InstrumentedLandscapeWaterCalculator(new LandscapeWaterCalculatorImplTwoPointers(),
+              new LandscapeWaterMetrics()), InstrumentedLandscapeWaterCalculator.class.getSimpleName()),
+          Arguments.of(LandscapeWaterCalculators.vectorOrScalar(),
+              LandscapeWaterCalculators.vectorOrScalar().getClass().getSimpleName()),
+          Arguments.of(LandscapeWaterCalculators.adaptive(64),
+              LandscapeWaterCalculators.adaptive(64).getClass().getSimpleName()));
     }
   }
 
@@ -304,6 +324,38 @@ public class LandscapeWaterCalculatorTest {
         .isEqualTo(21);
   }
 
+  /**
+   * The result should be '7'
+   *
+   * <pre>
+      7 |           O
+      6 | O ~ ~ O ~ |
+      5 | | O ~ | ~ |
+      4 | | | ~ | O |
+      3 | | | ~ | | |
+      2 | | | O | | |
+      1 | | | | | | | O O
+      0 | | | | | | | | | O
+        +------------------
+          0 1 2 3 4 5 6 7 8
+   * </pre>
+   */
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenLandscapeVariant8_whenCalculate_thenReturnCorrectValue(LandscapeWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final int[] landscape = { 6, 5, 2, 6, 4, 7, 1, 1, 0 };
+
+    // when
+    final long amount = calculator.calculateWaterAmount(landscape);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(7);
+  }
+
   /**
    * The result should be '9'
    *
@@ -333,6 +385,175 @@ public class LandscapeWaterCalculatorTest {
         .isEqualTo(9);
   }
 
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenLandscapeInsideLargerArray_whenCalculateRange_thenReturnCorrectValue(
+      LandscapeWaterCalculator calculator, String implName) {
+
+    // given
+    final int[] landscape = { 100, 0, 5, 2, 3, 4, 5, 4, 0, 3, 1, 100 };
+
+    // when
+    final long amount = calculator.calculateWaterAmount(landscape, 2, 9);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenRandomLandscapes_whenCalculate_thenReturnSameValueAsTwoPointers(
+      LandscapeWaterCalculator calculator, String implName) {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 200; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(1000)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(attempt % 2 == 0 ? 20 : 32_001);
+
+      // when
+      final long amount = calculator.calculateWaterAmount(landscape);
+
+      // then
+      assertThat(amount)
+          .isEqualTo(reference.calculateWaterAmount(landscape));
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenCompactLandscapes_whenCalculate_thenReturnSameValueAsIntLandscape(
+      LandscapeWaterCalculator calculator, String implName) {
+
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 100; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(300)];
+      final short[] shorts = new short[landscape.length];
+      final byte[] bytes = new byte[landscape.length];
+      for (int i = 0; i < landscape.length; i++) {
+        landscape[i] = random.nextInt(256);
+        shorts[i] = (short) landscape[i];
+        bytes[i] = (byte) landscape[i];
+      }
+
+      // when
+      final long amount = calculator.calculateWaterAmount(landscape);
+
+      // then
+      assertThat(calculator.calculateWaterAmount(shorts))
+          .isEqualTo(amount);
+      assertThat(calculator.calculateWaterAmount(bytes))
+          .isEqualTo(amount);
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenByteLandscapeAbove127_whenCalculate_thenTreatHeightsAsUnsigned(LandscapeWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final byte[] landscape = { (byte) 255, 0, (byte) 200 };
+
+    // when
+    final long amount = calculator.calculateWaterAmount(landscape);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(200);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenNegativeShortLandscapeValue_whenCalculate_thenThrowIllegalArgumentException(
+      LandscapeWaterCalculator calculator, String implName) {
+
+    // given
+    final short[] landscape = { 1, 2, 3, 0, -100, 5 };
+
+    // when
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterAmount(landscape));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape height value '-100'")
+        .hasNoCause();
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenLandscapeInsideBuffers_whenCalculate_thenReturnCorrectValueAndKeepPosition(
+      LandscapeWaterCalculator calculator, String implName) {
+
+    // given
+    final int[] landscape = { 100, 0, 5, 2, 3, 4, 5, 4, 0, 3, 1, 100 };
+    final ByteBuffer direct = ByteBuffer.allocateDirect(3 + landscape.length * Integer.BYTES)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    final ByteBuffer heap = ByteBuffer.allocate(landscape.length * Integer.BYTES);
+    for (int i = 0; i < landscape.length; i++) {
+      direct.putInt(3 + i * Integer.BYTES, landscape[i]);
+      heap.putInt(i * Integer.BYTES, landscape[i]);
+    }
+    final IntBuffer ints = ((ByteBuffer) direct.duplicate().position(3)).slice()
+        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    direct.position(1);
+
+    // when
+    final long fromDirect = calculator.calculateWaterAmount(direct, 3 + 2 * Integer.BYTES, 9);
+    final long fromHeap = calculator.calculateWaterAmount(heap, 2 * Integer.BYTES, 9);
+    final long fromInts = calculator.calculateWaterAmount(ints, 2, 9);
+
+    // then
+    assertThat(new long[] { fromDirect, fromHeap, fromInts })
+        .containsOnly(9);
+    assertThat(direct.position())
+        .isEqualTo(1);
+    assertThat(ints.position())
+        .isZero();
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenRangeBeyondBuffer_whenCalculate_thenThrowIndexOutOfBoundsException(
+      LandscapeWaterCalculator calculator, String implName) {
+
+    // given
+    final ByteBuffer landscape = ByteBuffer.allocate(10 * Integer.BYTES);
+
+    // when
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterAmount(landscape, 4, 10));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenNegativeValueInLongLandscape_whenCalculate_thenThrowIllegalArgumentException(
+      LandscapeWaterCalculator calculator, String implName) {
+
+    // given
+    final int[] landscape = new int[100];
+    landscape[40] = -1;
+
+    // when
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterAmount(landscape));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape height value '-1'")
+        .hasNoCause();
+  }
+
   @ParameterizedTest(name = "{index} using {1}")
   @ArgumentsSource(CalculatorImplementationsArgSource.class)
   public void givenNegativeLandscapeValue_whenCalculate_thenThrowIllegalArgumentException(
@@ -424,4 +645,24 @@ public class LandscapeWaterCalculatorTest {
         .hasStackTraceContaining("Wrong landscape length")
         .hasNoCause();
   }
+
+  @Test
+  public void givenWrongHeightsInSeveralSegments_whenCalculateInParallel_thenReportFirstInColumnOrder() {
+
+    // given
+    final LandscapeWaterCalculator calculator = new LandscapeWaterCalculatorImplForkJoin(ForkJoinPool.commonPool(),
+        1_000);
+    final int[] landscape = new int[32_000];
+    landscape[30_500] = -7;
+    landscape[1_500] = 32_001;
+
+    // when
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterAmount(landscape));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Wrong landscape height value '32001'")
+        .hasNoCause();
+  }
 }
@@ -0,0 +1,119 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class LandscapeWaterCalculatorsTest {
+
+  private final LandscapeWaterCalculator fast = new LandscapeWaterCalculatorImplTwoPointers();
+
+  private final LandscapeWaterCalculator slow = landscape -> {
+    long result = 0;
+    for (int i = 0; i < 4; i++)
+      result = fast.calculateWaterAmount(landscape);
+    return result;
+  };
+
+  @Test
+  public void givenVectorEngineAlwaysSlower_whenCalibrate_thenNeverUseIt() {
+
+    // when
+    final int threshold = AdaptiveLandscapeWaterCalculator.calibrate(fast, slow);
+
+    // then
+    assertThat(threshold)
+        .isEqualTo(Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void givenVectorEngineAlwaysFaster_whenCalibrate_thenUseItFromShortestLength() {
+
+    // when
+    final int threshold = AdaptiveLandscapeWaterCalculator.calibrate(slow, fast);
+
+    // then
+    assertThat(threshold)
+        .isEqualTo(AdaptiveLandscapeWaterCalculator.MIN_CALIBRATED_LENGTH);
+  }
+
+  @Test
+  public void givenConfiguredThreshold_whenAdaptive_thenSkipCalibration() {
+
+    // when
+    final LandscapeWaterCalculator calculator = LandscapeWaterCalculators.adaptive(" 16 ");
+
+    // then
+    if (calculator instanceof AdaptiveLandscapeWaterCalculator)
+      assertThat(((AdaptiveLandscapeWaterCalculator) calculator).vectorThreshold())
+          .isEqualTo(16);
+    else
+      assertThat(calculator)
+          .isInstanceOf(LandscapeWaterCalculatorImplTwoPointers.class);
+    assertThat(calculator.calculateWaterAmount(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 }))
+        .isEqualTo(9);
+  }
+
+  @Test
+  public void givenConfiguredThreshold_whenVectorThreshold_thenSkipCalibration() {
+
+    // when
+    final int threshold = LandscapeWaterCalculators.vectorThreshold(" 16 ");
+
+    // then
+    if (LandscapeWaterCalculators.vectorOrScalar() instanceof LandscapeWaterCalculatorImplTwoPointers)
+      assertThat(threshold)
+          .isEqualTo(Integer.MAX_VALUE);
+    else
+      assertThat(threshold)
+          .isEqualTo(16);
+  }
+
+  @Test
+  public void givenMalformedThreshold_whenAdaptive_thenThrowIllegalArgumentException() {
+
+    // when
+    final Throwable thrown = catchThrowable(() -> LandscapeWaterCalculators.adaptive("many"));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong vector threshold")
+        .hasCauseInstanceOf(NumberFormatException.class);
+  }
+
+  @Test
+  public void givenMalformedThreshold_whenAdaptiveOrCalibrated_thenCalculate() {
+
+    // when
+    final LandscapeWaterCalculator calculator = LandscapeWaterCalculators.adaptiveOrCalibrated("many");
+
+    // then
+    assertThat(calculator.calculateWaterAmount(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 }))
+        .isEqualTo(9);
+  }
+
+  @Test
+  public void givenCalibrationInBackground_whenCalculate_thenUseScalarUntilCalibrated() throws InterruptedException {
+
+    // given
+    final AdaptiveLandscapeWaterCalculator calculator = new AdaptiveLandscapeWaterCalculator(slow, fast,
+        Integer.MAX_VALUE);
+
+    // when
+    calculator.calibrateInBackground();
+    final long amount = calculator.calculateWaterAmount(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (calculator.vectorThreshold() == Integer.MAX_VALUE && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertThat(calculator.vectorThreshold())
+        .isEqualTo(AdaptiveLandscapeWaterCalculator.MIN_CALIBRATED_LENGTH);
+  }
+}
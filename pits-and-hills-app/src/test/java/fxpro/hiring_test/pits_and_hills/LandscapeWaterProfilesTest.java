@@ -0,0 +1,98 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LandscapeWaterProfilesTest {
+
+  /**
+   * The profile should be '0 3 2 1 0 0 3 0 0'
+   */
+  @Test
+  public void givenLandscapeVariantFromTheTask_whenCalculateProfile_thenWriteDepthsAndPrefixSums() {
+
+    // given
+    final int[] landscape = { 5, 2, 3, 4, 5, 4, 0, 3, 1 };
+    final int[] depths = new int[landscape.length];
+    final long[] prefixSums = new long[landscape.length];
+
+    // when
+    final long amount = LandscapeWaterProfiles.calculateWaterProfile(landscape, depths, prefixSums);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+    assertThat(depths)
+        .containsExactly(0, 3, 2, 1, 0, 0, 3, 0, 0);
+    assertThat(prefixSums)
+        .containsExactly(0, 3, 5, 6, 6, 6, 9, 9, 9);
+  }
+
+  @Test
+  public void givenDirectBuffer_whenCalculateProfile_thenWriteFromPositionAndKeepIt() {
+
+    // given
+    final int[] landscape = { 4, 1, 3 };
+    final IntBuffer depths = ByteBuffer.allocateDirect(5 * Integer.BYTES).asIntBuffer();
+    depths.position(2);
+
+    // when
+    final long amount = LandscapeWaterProfiles.calculateWaterProfile(landscape, depths);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(2);
+    assertThat(depths.position())
+        .isEqualTo(2);
+    assertThat(new int[] { depths.get(2), depths.get(3), depths.get(4) })
+        .containsExactly(0, 2, 0);
+  }
+
+  @Test
+  public void givenRandomLandscapes_whenCalculateProfile_thenDepthsSumUpToCalculatorValue() {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplArrays();
+    final Random random = new Random(42);
+    final int[] depths = new int[300];
+    for (int attempt = 0; attempt < 200; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(300)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(20);
+
+      // when
+      final long amount = LandscapeWaterProfiles.calculateWaterProfile(landscape, depths);
+
+      // then
+      long sum = 0;
+      for (int column = 0; column < landscape.length; column++)
+        sum += depths[column];
+      assertThat(amount)
+          .isEqualTo(sum)
+          .isEqualTo(reference.calculateWaterAmount(landscape));
+    }
+  }
+
+  @Test
+  public void givenShortDepthsBuffer_whenCalculateProfile_thenThrowIllegalArgumentException() {
+
+    // given
+    final int[] landscape = { 4, 1, 3 };
+
+    // when
+    final Throwable thrown = catchThrowable(() -> LandscapeWaterProfiles.calculateWaterProfile(landscape, new int[2]));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong profile buffer length")
+        .hasNoCause();
+  }
+}
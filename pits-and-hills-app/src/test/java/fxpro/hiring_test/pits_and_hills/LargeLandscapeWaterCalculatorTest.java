@@ -0,0 +1,127 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+public class LargeLandscapeWaterCalculatorTest {
+
+  static class LargeCalculatorImplementationsArgSource implements ArgumentsProvider {
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+      return Stream.of(
+          Arguments.of(new LandscapeWaterCalculatorImplTwoPointers(),
+              LandscapeWaterCalculatorImplTwoPointers.class.getSimpleName()),
+          Arguments.of(new LandscapeWaterCalculatorImplForkJoin(ForkJoinPool.commonPool(), 7),
+              LandscapeWaterCalculatorImplForkJoin.class.getSimpleName()));
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(LargeCalculatorImplementationsArgSource.class)
+  public void givenLandscapeVariantFromTheTask_whenCalculate_thenReturnCorrectValue(
+      LargeLandscapeWaterCalculator calculator, String implName) {
+
+    // given
+    final int[] landscape = { 5, 2, 3, 4, 5, 4, 0, 3, 1 };
+
+    // when
+    final long amount = calculator.calculateLargeWaterAmount(landscape);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(LargeCalculatorImplementationsArgSource.class)
+  public void givenHugeBeerMugLandscape_whenCalculate_thenReturnLongValue(LargeLandscapeWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final int[] landscape = new int[1_000_000];
+    landscape[0] = Integer.MAX_VALUE;
+    landscape[landscape.length - 1] = Integer.MAX_VALUE;
+
+    // when
+    final long amount = calculator.calculateLargeWaterAmount(landscape);
+
+    // then
+    assertThat(amount)
+        .isEqualTo((long) Integer.MAX_VALUE * (landscape.length - 2));
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(LargeCalculatorImplementationsArgSource.class)
+  public void givenNegativeHeights_whenCalculate_thenReturnCorrectValue(LargeLandscapeWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final int[] landscape = { Integer.MAX_VALUE, Integer.MIN_VALUE, -1, Integer.MAX_VALUE - 1 };
+
+    // when
+    final long amount = calculator.calculateLargeWaterAmount(landscape);
+
+    // then
+    assertThat(amount)
+        .isEqualTo((long) Integer.MAX_VALUE - 1 - Integer.MIN_VALUE
+            + (long) Integer.MAX_VALUE);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(LargeCalculatorImplementationsArgSource.class)
+  public void givenRandomLandscape_whenCalculateByPages_thenReturnSameValueAsBoundedCalculator(
+      LargeLandscapeWaterCalculator calculator, String implName) {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplArrays();
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 200; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(500)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(50);
+      final List<int[]> pages = new ArrayList<>();
+      for (int from = 0; from < landscape.length;) {
+        final int to = Math.min(landscape.length, from + random.nextInt(20));
+        pages.add(Arrays.copyOfRange(landscape, from, to));
+        from = to;
+      }
+
+      // when
+      final long amount = calculator.calculateLargeWaterAmount(LandscapePages.of(pages.toArray(new int[0][])));
+
+      // then
+      assertThat(amount)
+          .isEqualTo(reference.calculateWaterAmount(landscape))
+          .isEqualTo(calculator.calculateLargeWaterAmount(landscape));
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(LargeCalculatorImplementationsArgSource.class)
+  public void givenNoPages_whenCalculate_thenReturnZeroValue(LargeLandscapeWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final LandscapePages landscape = LandscapePages.of(new int[0], new int[0]);
+
+    // when
+    final long amount = calculator.calculateLargeWaterAmount(landscape);
+
+    // then
+    assertThat(amount)
+        .isZero();
+  }
+}
@@ -0,0 +1,93 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class MappedLandscapeWaterCalculatorTest {
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest(name = "{index} using {0}")
+  @EnumSource(HeightEncoding.class)
+  public void givenLandscapeFile_whenCalculate_thenReturnCorrectValue(HeightEncoding encoding) throws IOException {
+
+    // given
+    final Path file = write(encoding, 5, 2, 3, 4, 5, 4, 0, 3, 1);
+
+    // when
+    final long amount = new MappedLandscapeWaterCalculator(encoding).calculateWaterAmount(file);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+  }
+
+  @ParameterizedTest(name = "{index} using {0}")
+  @EnumSource(HeightEncoding.class)
+  public void givenRandomLandscapeFile_whenCalculateInSmallWindows_thenReturnSameValueAsInMemory(
+      HeightEncoding encoding) throws IOException {
+
+    final LargeLandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 50; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(2_000)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(Short.MAX_VALUE);
+      final Path file = write(encoding, landscape);
+
+      // when
+      final long amount = new MappedLandscapeWaterCalculator(encoding, 1 + random.nextInt(100))
+          .calculateWaterAmount(file);
+
+      // then
+      assertThat(amount)
+          .isEqualTo(reference.calculateLargeWaterAmount(landscape));
+    }
+  }
+
+  @Test
+  public void givenTruncatedFile_whenCalculate_thenThrowIllegalArgumentException() throws IOException {
+
+    // given
+    final Path file = directory.resolve("truncated.bin");
+    Files.write(file, new byte[] { 1, 0, 0, 0, 2, 0 });
+
+    // when
+    final Throwable thrown = catchThrowable(
+        () -> new MappedLandscapeWaterCalculator(HeightEncoding.INT32).calculateWaterAmount(file));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape file size")
+        .hasNoCause();
+  }
+
+  private Path write(final HeightEncoding encoding, final int... landscape) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(landscape.length * encoding.bytes())
+        .order(ByteOrder.LITTLE_ENDIAN);
+    for (final int height : landscape)
+      if (encoding == HeightEncoding.INT16)
+        buffer.putShort((short) height);
+      else
+        buffer.putInt(height);
+    final Path file = Files.createTempFile(directory, "landscape", ".bin");
+    Files.write(file, buffer.array());
+    return file;
+  }
+}
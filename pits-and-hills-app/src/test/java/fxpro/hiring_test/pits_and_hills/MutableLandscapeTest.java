@@ -0,0 +1,73 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorTest.CalculatorImplementationsArgSource;
+
+public class MutableLandscapeTest {
+
+  @Test
+  public void givenLandscapeVariantFromTheTask_whenWaterAmount_thenReturnCorrectValue() {
+
+    // given
+    final MutableLandscape landscape = new MutableLandscape(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // when
+    final long amount = landscape.waterAmount();
+
+    // then
+    assertThat(amount)
+        .isEqualTo(9);
+  }
+
+  @Test
+  public void givenBeerMugLandscape_whenRaiseAndLowerWall_thenReturnCorrectValues() {
+
+    // given
+    final MutableLandscape landscape = new MutableLandscape(32_000);
+    landscape.setHeight(0, 32_000);
+    landscape.setHeight(32_000 - 1, 32_000);
+
+    // when
+    final long full = landscape.waterAmount();
+    landscape.setHeight(0, 0);
+    final long empty = landscape.waterAmount();
+
+    // then
+    assertThat(full)
+        .isEqualTo(32_000L * (32_000 - 2));
+    assertThat(empty)
+        .isZero();
+    assertThat(landscape.height(32_000 - 1))
+        .isEqualTo(32_000);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(CalculatorImplementationsArgSource.class)
+  public void givenRandomUpdates_whenWaterAmount_thenReturnSameValueAsCalculator(LandscapeWaterCalculator calculator,
+      String implName) {
+
+    final Random random = new Random(42);
+    final int[] heights = new int[1 + random.nextInt(300)];
+    final MutableLandscape landscape = new MutableLandscape(heights);
+    for (int update = 0; update < 2_000; update++) {
+
+      // given
+      final int index = random.nextInt(heights.length);
+      heights[index] = random.nextInt(update % 2 == 0 ? 10 : 32_001);
+
+      // when
+      landscape.setHeight(index, heights[index]);
+
+      // then
+      assertThat(landscape.waterAmount())
+          .isEqualTo(calculator.calculateWaterAmount(heights));
+    }
+  }
+}
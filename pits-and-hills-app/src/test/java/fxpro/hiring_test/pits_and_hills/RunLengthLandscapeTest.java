@@ -0,0 +1,107 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class RunLengthLandscapeTest {
+
+  @Test
+  public void givenBeerMugRuns_whenCalculate_thenReturnCorrectValue() {
+
+    // given
+    final int[] heights = { 32_000, 0, 32_000 };
+    final int[] runLengths = { 1, 31_998, 1 };
+
+    // when
+    final long amount = RunLengthLandscape.calculateWaterAmount(heights, runLengths);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(31_998L * 32_000);
+  }
+
+  @Test
+  public void givenRunsBeyondArrayLength_whenCalculate_thenReturnCorrectValue() {
+
+    // given
+    final int[] heights = { 2, 1, 3, 0, 1 };
+    final int[] runLengths = { Integer.MAX_VALUE, Integer.MAX_VALUE, 5, Integer.MAX_VALUE, 1 };
+
+    // when
+    final long amount = RunLengthLandscape.calculateWaterAmount(heights, runLengths);
+
+    // then
+    assertThat(amount)
+        .isEqualTo(2L * Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void givenRandomLandscapes_whenEncodeAndCalculate_thenReturnSameValueAsCalculator() {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 200; attempt++) {
+
+      // given
+      final int[] landscape = new int[random.nextInt(300)];
+      for (int i = 0; i < landscape.length; i++)
+        landscape[i] = random.nextInt(attempt % 2 == 0 ? 4 : 32_001);
+
+      // when
+      final RunLengthLandscape encoded = RunLengthLandscape.encode(landscape);
+
+      // then
+      assertThat(encoded.decode())
+          .isEqualTo(landscape);
+      assertThat(encoded.length())
+          .isEqualTo(landscape.length);
+      assertThat(encoded.waterAmount())
+          .isEqualTo(reference.calculateWaterAmount(landscape));
+    }
+  }
+
+  @Test
+  public void givenPlateaus_whenEncode_thenMergeEqualNeighbours() {
+
+    // when
+    final RunLengthLandscape encoded = RunLengthLandscape.encode(new int[] { 5, 5, 5, 0, 0, 3, 5, 5 });
+
+    // then
+    assertThat(encoded.heights())
+        .containsExactly(5, 0, 3, 5);
+    assertThat(encoded.runLengths())
+        .containsExactly(3, 2, 1, 2);
+  }
+
+  @Test
+  public void givenEmptyRun_whenCalculate_thenThrowIllegalArgumentException() {
+
+    // when
+    final Throwable thrown = catchThrowable(
+        () -> RunLengthLandscape.calculateWaterAmount(new int[] { 3, 0, 3 }, new int[] { 1, 0, 1 }));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong run lengths")
+        .hasNoCause();
+  }
+
+  @Test
+  public void givenNegativeRunHeight_whenCalculate_thenThrowIllegalArgumentException() {
+
+    // when
+    final Throwable thrown = catchThrowable(
+        () -> RunLengthLandscape.calculateWaterAmount(new int[] { 3, -1, 3 }, new int[] { 1, 2, 1 }));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong landscape height value '-1'")
+        .hasNoCause();
+  }
+}
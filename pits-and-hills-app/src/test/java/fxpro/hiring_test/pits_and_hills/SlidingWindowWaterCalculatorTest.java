@@ -0,0 +1,75 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class SlidingWindowWaterCalculatorTest {
+
+  @Test
+  public void givenLandscapeVariantFromTheTask_whenPushed_thenReturnCorrectValue() {
+
+    // given
+    final SlidingWindowWaterCalculator calculator = new SlidingWindowWaterCalculator(9);
+
+    // when
+    for (final int height : new int[] { 7, 7, 5, 2, 3, 4, 5, 4, 0, 3, 1 })
+      calculator.push(height);
+
+    // then
+    assertThat(calculator.size())
+        .isEqualTo(9);
+    assertThat(calculator.windowWaterAmount())
+        .isEqualTo(9);
+  }
+
+  @ParameterizedTest(name = "{index} window of {0}")
+  @ValueSource(ints = { 1, 2, 3, 4, 7, 64, 100, 257 })
+  public void givenRandomSeries_whenPushed_thenReturnSameValueAsCalculatorOnEveryWindow(int windowLength) {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplArrays();
+    final Random random = new Random(42);
+    final SlidingWindowWaterCalculator calculator = new SlidingWindowWaterCalculator(windowLength);
+    final int[] series = new int[3 * windowLength + 500];
+    for (int sample = 0; sample < series.length; sample++) {
+
+      // given
+      series[sample] = random.nextInt(sample / 50 % 2 == 0 ? 10 : 32_001);
+
+      // when
+      calculator.push(series[sample]);
+
+      // then
+      final int from = Math.max(0, sample + 1 - windowLength);
+      assertThat(calculator.windowWaterAmount())
+          .isEqualTo(reference.calculateWaterAmount(Arrays.copyOfRange(series, from, sample + 1)));
+    }
+  }
+
+  @Test
+  public void givenRisingAndFallingSeries_whenPushed_thenReturnSameValueAsCalculatorOnEveryWindow() {
+
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplArrays();
+    final SlidingWindowWaterCalculator calculator = new SlidingWindowWaterCalculator(50);
+    final int[] series = new int[2_000];
+    for (int sample = 0; sample < series.length; sample++) {
+
+      // given
+      final int phase = sample % 300;
+      series[sample] = phase < 150 ? 10 * phase : 10 * (300 - phase);
+
+      // when
+      calculator.push(series[sample]);
+
+      // then
+      final int from = Math.max(0, sample + 1 - 50);
+      assertThat(calculator.windowWaterAmount())
+          .isEqualTo(reference.calculateWaterAmount(Arrays.copyOfRange(series, from, sample + 1)));
+    }
+  }
+}
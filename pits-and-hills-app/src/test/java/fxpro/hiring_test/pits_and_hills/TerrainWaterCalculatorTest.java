@@ -0,0 +1,196 @@
+package fxpro.hiring_test.pits_and_hills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+public class TerrainWaterCalculatorTest {
+
+  static class TerrainCalculatorImplementationsArgSource implements ArgumentsProvider {
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+      return Stream.of(
+          Arguments.of(new TerrainWaterCalculatorImplPriorityFlood(),
+              TerrainWaterCalculatorImplPriorityFlood.class.getSimpleName()));
+    }
+  }
+
+  /**
+   * The result should be '4'
+   *
+   * <pre>
+      1 4 3 1 3 2
+      3 2 1 3 2 4
+      2 3 3 2 3 1
+   * </pre>
+   */
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(TerrainCalculatorImplementationsArgSource.class)
+  public void givenTerrainVariant1_whenCalculate_thenReturnCorrectValue(TerrainWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final int[] terrain = {
+        1, 4, 3, 1, 3, 2,
+        3, 2, 1, 3, 2, 4,
+        2, 3, 3, 2, 3, 1 };
+
+    // when
+    final long volume = calculator.calculateWaterVolume(terrain, 6, 3);
+
+    // then
+    assertThat(volume)
+        .isEqualTo(4);
+  }
+
+  /**
+   * The result should be '10'
+   *
+   * <pre>
+      3 3 3 3 3
+      3 2 2 2 3
+      3 2 1 2 3
+      3 2 2 2 3
+      3 3 3 3 3
+   * </pre>
+   */
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(TerrainCalculatorImplementationsArgSource.class)
+  public void givenShortTerrainVariant2_whenCalculate_thenReturnCorrectValue(TerrainWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final short[] terrain = {
+        3, 3, 3, 3, 3,
+        3, 2, 2, 2, 3,
+        3, 2, 1, 2, 3,
+        3, 2, 2, 2, 3,
+        3, 3, 3, 3, 3 };
+
+    // when
+    final long volume = calculator.calculateWaterVolume(terrain, 5, 5);
+
+    // then
+    assertThat(volume)
+        .isEqualTo(10);
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(TerrainCalculatorImplementationsArgSource.class)
+  public void givenSingleRowTerrain_whenCalculate_thenReturnZeroValue(TerrainWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final int[] terrain = { 5, 0, 5 };
+
+    // when
+    final long volume = calculator.calculateWaterVolume(terrain, 3, 1);
+
+    // then
+    assertThat(volume)
+        .isZero();
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(TerrainCalculatorImplementationsArgSource.class)
+  public void givenRandomTerrains_whenCalculate_thenReturnSameValueAsRelaxation(TerrainWaterCalculator calculator,
+      String implName) {
+
+    final Random random = new Random(42);
+    for (int attempt = 0; attempt < 100; attempt++) {
+
+      // given
+      final int width = 1 + random.nextInt(20);
+      final int height = 1 + random.nextInt(20);
+      final int[] terrain = new int[width * height];
+      for (int cell = 0; cell < terrain.length; cell++)
+        terrain[cell] = random.nextInt(attempt % 2 == 0 ? 10 : 32_001);
+
+      // when
+      final long volume = calculator.calculateWaterVolume(terrain, width, height);
+
+      // then
+      assertThat(volume)
+          .isEqualTo(relaxation(terrain, width, height));
+    }
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(TerrainCalculatorImplementationsArgSource.class)
+  public void givenMismatchingSize_whenCalculate_thenThrowIllegalArgumentException(TerrainWaterCalculator calculator,
+      String implName) {
+
+    // given
+    final int[] terrain = new int[10];
+
+    // when
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterVolume(terrain, 3, 3));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong terrain size")
+        .hasNoCause();
+  }
+
+  @ParameterizedTest(name = "{index} using {1}")
+  @ArgumentsSource(TerrainCalculatorImplementationsArgSource.class)
+  public void givenNegativeTerrainValue_whenCalculate_thenThrowIllegalArgumentException(
+      TerrainWaterCalculator calculator, String implName) {
+
+    // given
+    final short[] terrain = { 1, 1, 1, 1, -1, 1, 1, 1, 1 };
+
+    // when
+    final Throwable thrown = catchThrowable(() -> calculator.calculateWaterVolume(terrain, 3, 3));
+
+    // then
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasStackTraceContaining("Wrong terrain height value")
+        .hasNoCause();
+  }
+
+  /**
+   * Water level of every inner cell relaxed to the lowest level among its
+   * neighbours until nothing changes.
+   */
+  private static long relaxation(final int[] terrain, final int width, final int height) {
+    final int[] levels = new int[terrain.length];
+    Arrays.fill(levels, Integer.MAX_VALUE);
+    for (int y = 0; y < height; y++)
+      for (int x = 0; x < width; x++)
+        if (x == 0 || y == 0 || x == width - 1 || y == height - 1)
+          levels[y * width + x] = terrain[y * width + x];
+
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int y = 1; y < height - 1; y++)
+        for (int x = 1; x < width - 1; x++) {
+          final int cell = y * width + x;
+          final int lowest = Math.min(Math.min(levels[cell - 1], levels[cell + 1]),
+              Math.min(levels[cell - width], levels[cell + width]));
+          final int level = Math.max(terrain[cell], lowest);
+          if (level < levels[cell]) {
+            levels[cell] = level;
+            changed = true;
+          }
+        }
+    }
+
+    long result = 0;
+    for (int cell = 0; cell < terrain.length; cell++)
+      result += levels[cell] - terrain[cell];
+    return result;
+  }
+}
@@ -0,0 +1,33 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the regular JMH command line
+ * options and always attaches the GC profiler, so allocation rate per
+ * operation is reported next to throughput and average time.
+ * <p>
+ * Forks inherit the options of this JVM, so on Java 17+ run it with
+ * {@code --add-modules jdk.incubator.vector} to benchmark the vector
+ * calculator rather than its scalar fallback.
+ */
+public class BenchmarkRunner {
+
+  public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+    final CommandLineOptions commandLine = new CommandLineOptions(args);
+    final OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(commandLine);
+    if (commandLine.getIncludes().isEmpty())
+      builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+    final Options options = builder
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
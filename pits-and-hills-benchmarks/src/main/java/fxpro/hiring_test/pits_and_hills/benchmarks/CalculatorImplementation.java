@@ -0,0 +1,35 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import java.util.function.Supplier;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculator;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplArrays;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplArraysReusable;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplHashMap;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplTreeMap;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplTwoPointers;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculators;
+
+/**
+ * {@link LandscapeWaterCalculator} implementations under benchmark, addressable
+ * by name from JMH {@code @Param} values.
+ */
+public enum CalculatorImplementation {
+
+  ARRAYS(LandscapeWaterCalculatorImplArrays::new),
+  TREE_MAP(LandscapeWaterCalculatorImplTreeMap::new),
+  HASH_MAP(LandscapeWaterCalculatorImplHashMap::new),
+  TWO_POINTERS(LandscapeWaterCalculatorImplTwoPointers::new),
+  ARRAYS_REUSABLE(LandscapeWaterCalculatorImplArraysReusable::new),
+  VECTOR_OR_SCALAR(LandscapeWaterCalculators::vectorOrScalar);
+
+  private final Supplier<LandscapeWaterCalculator> factory;
+
+  CalculatorImplementation(final Supplier<LandscapeWaterCalculator> factory) {
+    this.factory = factory;
+  }
+
+  public LandscapeWaterCalculator create() {
+    return factory.get();
+  }
+}
@@ -0,0 +1,91 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Landscape generators used by the benchmarks. Every generator produces
+ * heights between 0 and {@link #MAX_HEIGHT} and is deterministic for a given
+ * seed.
+ */
+public enum LandscapeShape {
+
+  FLAT {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return MAX_HEIGHT / 2;
+    }
+  },
+
+  /**
+   * Two walls of the maximum height with zeros between them, as in
+   * {@code givenBeerMugLandscape}.
+   */
+  BEER_MUG {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return column == 0 || column == length - 1 ? MAX_HEIGHT : 0;
+    }
+  },
+
+  RANDOM {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return random.nextInt(MAX_HEIGHT + 1);
+    }
+  },
+
+  /**
+   * Repeating ramps: every height of a ramp occurs in each tooth, so the
+   * column range of every height spans nearly the whole landscape. This is
+   * the worst case for the height-ordered sweep.
+   */
+  SAWTOOTH {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return (column % SAWTOOTH_PERIOD) * (MAX_HEIGHT / SAWTOOTH_PERIOD);
+    }
+  },
+
+  ASCENDING {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return (int) ((long) column * MAX_HEIGHT / length);
+    }
+  },
+
+  DESCENDING {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return (int) ((long) (length - 1 - column) * MAX_HEIGHT / length);
+    }
+  },
+
+  PLATEAUS {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return new Random(column / PLATEAU_WIDTH).nextInt(MAX_HEIGHT + 1);
+    }
+  },
+
+  SINGLE_SPIKE {
+    @Override
+    int height(final int column, final int length, final Random random) {
+      return column == length / 2 ? MAX_HEIGHT : 0;
+    }
+  };
+
+  public static final int MAX_HEIGHT = 32_000;
+
+  static final int SAWTOOTH_PERIOD = 1_000;
+  static final int PLATEAU_WIDTH = 100;
+
+  abstract int height(final int column, final int length, final Random random);
+
+  public int[] generate(final int length, final long seed) {
+    final Random random = new Random(seed);
+    final int[] landscape = new int[length];
+    for (int column = 0; column < length; column++)
+      landscape[column] = height(column, length, random);
+    return landscape;
+  }
+}
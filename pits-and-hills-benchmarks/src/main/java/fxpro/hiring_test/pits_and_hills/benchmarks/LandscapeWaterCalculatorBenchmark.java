@@ -0,0 +1,53 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculator;
+
+/**
+ * Compares every {@link LandscapeWaterCalculator} implementation across
+ * landscape lengths and shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LandscapeWaterCalculatorBenchmark {
+
+  @Param
+  public CalculatorImplementation implementation;
+
+  @Param({ "100", "1000", "32000" })
+  public int length;
+
+  @Param
+  public LandscapeShape shape;
+
+  private LandscapeWaterCalculator calculator;
+  private int[] landscape;
+
+  @Setup
+  public void setUp() {
+    calculator = implementation.create();
+    landscape = shape.generate(length, 42L);
+  }
+
+  @Benchmark
+  public long calculateWaterAmount() {
+    return calculator.calculateWaterAmount(landscape);
+  }
+}
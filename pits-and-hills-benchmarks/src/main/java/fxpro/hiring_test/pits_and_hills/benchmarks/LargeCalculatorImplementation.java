@@ -0,0 +1,27 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import java.util.function.Supplier;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplForkJoin;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplTwoPointers;
+import fxpro.hiring_test.pits_and_hills.LargeLandscapeWaterCalculator;
+
+/**
+ * {@link LargeLandscapeWaterCalculator} implementations under benchmark,
+ * addressable by name from JMH {@code @Param} values.
+ */
+public enum LargeCalculatorImplementation {
+
+  TWO_POINTERS(LandscapeWaterCalculatorImplTwoPointers::new),
+  FORK_JOIN(LandscapeWaterCalculatorImplForkJoin::new);
+
+  private final Supplier<LargeLandscapeWaterCalculator> factory;
+
+  LargeCalculatorImplementation(final Supplier<LargeLandscapeWaterCalculator> factory) {
+    this.factory = factory;
+  }
+
+  public LargeLandscapeWaterCalculator create() {
+    return factory.get();
+  }
+}
@@ -0,0 +1,53 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fxpro.hiring_test.pits_and_hills.LargeLandscapeWaterCalculator;
+
+/**
+ * Landscapes beyond the 32000 cap of {@code LandscapeWaterCalculator}, for the
+ * implementations that support them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeLandscapeWaterCalculatorBenchmark {
+
+  @Param
+  public LargeCalculatorImplementation implementation;
+
+  @Param({ "1000000", "10000000" })
+  public int length;
+
+  @Param
+  public LandscapeShape shape;
+
+  private LargeLandscapeWaterCalculator calculator;
+  private int[] landscape;
+
+  @Setup
+  public void setUp() {
+    calculator = implementation.create();
+    landscape = shape.generate(length, 42L);
+  }
+
+  @Benchmark
+  public long calculateLargeWaterAmount() {
+    return calculator.calculateLargeWaterAmount(landscape);
+  }
+}
@@ -0,0 +1,57 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Terrain generators used by the benchmarks. Every generator produces heights
+ * between 0 and {@link LandscapeShape#MAX_HEIGHT} and is deterministic for a
+ * given seed.
+ */
+public enum TerrainShape {
+
+  RANDOM {
+    @Override
+    int height(final int x, final int y, final int size, final Random random) {
+      return random.nextInt(LandscapeShape.MAX_HEIGHT + 1);
+    }
+  },
+
+  /**
+   * Rises with the distance from the centre, so the whole terrain holds one
+   * deep lake.
+   */
+  BOWL {
+    @Override
+    int height(final int x, final int y, final int size, final Random random) {
+      final long dx = 2L * x - size;
+      final long dy = 2L * y - size;
+      return (int) Math.min(LandscapeShape.MAX_HEIGHT,
+          (dx * dx + dy * dy) * LandscapeShape.MAX_HEIGHT / (2L * size * size));
+    }
+  },
+
+  /**
+   * Rows of the {@link LandscapeShape#SAWTOOTH} landscape: many levels, many
+   * small lakes.
+   */
+  SAWTOOTH {
+    @Override
+    int height(final int x, final int y, final int size, final Random random) {
+      return LandscapeShape.SAWTOOTH.height(x + y, size, random);
+    }
+  };
+
+  abstract int height(final int x, final int y, final int size, final Random random);
+
+  /**
+   * @return row-major square terrain
+   */
+  public short[] generate(final int size, final long seed) {
+    final Random random = new Random(seed);
+    final short[] terrain = new short[size * size];
+    for (int y = 0; y < size; y++)
+      for (int x = 0; x < size; x++)
+        terrain[y * size + x] = (short) height(x, y, size, random);
+    return terrain;
+  }
+}
@@ -0,0 +1,50 @@
+package fxpro.hiring_test.pits_and_hills.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fxpro.hiring_test.pits_and_hills.TerrainWaterCalculator;
+import fxpro.hiring_test.pits_and_hills.TerrainWaterCalculatorImplPriorityFlood;
+
+/**
+ * Square terrains up to 10k x 10k cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TerrainWaterCalculatorBenchmark {
+
+  @Param({ "1000", "10000" })
+  public int size;
+
+  @Param
+  public TerrainShape shape;
+
+  private TerrainWaterCalculator calculator;
+  private short[] terrain;
+
+  @Setup
+  public void setUp() {
+    calculator = new TerrainWaterCalculatorImplPriorityFlood();
+    terrain = shape.generate(size, 42L);
+  }
+
+  @Benchmark
+  public long calculateWaterVolume() {
+    return calculator.calculateWaterVolume(terrain, size, size);
+  }
+}
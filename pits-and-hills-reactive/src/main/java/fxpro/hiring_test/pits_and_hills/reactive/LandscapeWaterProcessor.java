@@ -0,0 +1,249 @@
+package fxpro.hiring_test.pits_and_hills.reactive;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculator;
+
+/**
+ * Reactive stage calculating the water amount of every landscape published
+ * upstream on an executor, so the threads signalling the stream never run
+ * the calculator.
+ * <p>
+ * Landscapes are requested from upstream only as the subscriber requests
+ * amounts, and at most {@code parallelism} of them are requested but not yet
+ * emitted, which bounds both the concurrent calculations and the results
+ * buffered for a slow subscriber. Amounts are emitted either in the order of
+ * the landscapes, a finished amount waiting for the earlier ones, or in the
+ * order the calculations finish.
+ * <p>
+ * All signals to the subscriber are serialized by a drain loop: whichever
+ * thread changes the state runs the loop, or leaves the work to the thread
+ * already running it. A calculator exception cancels upstream and is passed to
+ * the subscriber with {@code onError}; upstream completion or error is passed
+ * on once every received landscape is emitted. The processor accepts a single
+ * subscriber and a single upstream subscription.
+ */
+public class LandscapeWaterProcessor implements Flow.Processor<int[], Long> {
+
+  private final LandscapeWaterCalculator calculator;
+  private final Executor executor;
+  private final int parallelism;
+  private final boolean ordered;
+
+  /** Amounts of the landscapes in flight by sequence number, if ordered. */
+  private final AtomicReferenceArray<Long> slots;
+  /** Amounts in the order they are calculated, if not ordered. */
+  private final Queue<Long> amounts;
+
+  private final AtomicReference<Flow.Subscriber<? super Long>> downstream = new AtomicReference<>();
+  private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+  private final AtomicInteger wip = new AtomicInteger();
+  private final AtomicLong requested = new AtomicLong();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  /** Set once the subscriber returned from {@code onSubscribe}. */
+  private volatile boolean subscribed;
+  private volatile long received;
+  private volatile boolean done;
+  private volatile Throwable upstreamError;
+  private volatile boolean cancelled;
+
+  /** Drain loop state. */
+  private long emitted;
+  private long requestedUpstream;
+  private boolean terminated;
+
+  /**
+   * Calculates on the common fork-join pool.
+   */
+  public LandscapeWaterProcessor(final LandscapeWaterCalculator calculator, final int parallelism,
+      final boolean ordered) {
+    this(calculator, ForkJoinPool.commonPool(), parallelism, ordered);
+  }
+
+  /**
+   * @param calculator  of the landscapes, called concurrently if the
+   *                    parallelism is above one
+   * @param executor    running the calculations
+   * @param parallelism max number of landscapes requested from upstream but
+   *                    not yet emitted
+   * @param ordered     whether amounts are emitted in the order of the
+   *                    landscapes
+   */
+  public LandscapeWaterProcessor(final LandscapeWaterCalculator calculator, final Executor executor,
+      final int parallelism, final boolean ordered) {
+    if (parallelism < 1)
+      throw new IllegalArgumentException("Wrong parallelism");
+    this.calculator = calculator;
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.ordered = ordered;
+    this.slots = ordered ? new AtomicReferenceArray<>(parallelism) : null;
+    this.amounts = ordered ? null : new ConcurrentLinkedQueue<>();
+  }
+
+  @Override
+  public void subscribe(final Flow.Subscriber<? super Long> subscriber) {
+    if (!downstream.compareAndSet(null, subscriber)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+
+        @Override
+        public void request(final long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+      });
+      subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+      return;
+    }
+    subscriber.onSubscribe(new Flow.Subscription() {
+
+      @Override
+      public void request(final long n) {
+        if (n <= 0) {
+          failure.compareAndSet(null, new IllegalArgumentException("Non-positive request " + n));
+        } else {
+          requested.getAndAccumulate(n, (current, more) -> current + more < 0 ? Long.MAX_VALUE : current + more);
+        }
+        drain();
+      }
+
+      @Override
+      public void cancel() {
+        cancelled = true;
+        drain();
+      }
+    });
+    // no other signal may precede onSubscribe, so the drain loop skips the
+    // subscriber until it returned
+    subscribed = true;
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(final Flow.Subscription subscription) {
+    if (!upstream.compareAndSet(null, subscription)) {
+      subscription.cancel();
+      return;
+    }
+    drain();
+  }
+
+  @Override
+  public void onNext(final int[] landscape) {
+    final long sequence = received;
+    try {
+      executor.execute(() -> calculate(sequence, landscape));
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, e);
+      drain();
+      return;
+    }
+    received = sequence + 1;
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    upstreamError = throwable;
+    done = true;
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    done = true;
+    drain();
+  }
+
+  private void calculate(final long sequence, final int[] landscape) {
+    try {
+      final Long amount = calculator.calculateWaterAmount(landscape);
+      if (ordered)
+        slots.set((int) (sequence % parallelism), amount);
+      else
+        amounts.offer(amount);
+    } catch (Throwable e) {
+      failure.compareAndSet(null, e);
+    }
+    drain();
+  }
+
+  private void drain() {
+    if (wip.getAndIncrement() != 0)
+      return;
+    int missed = 1;
+    do {
+      if (!terminated)
+        drainOnce();
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void drainOnce() {
+    final Flow.Subscriber<? super Long> subscriber = downstream.get();
+    final Flow.Subscription subscription = upstream.get();
+    if (cancelled) {
+      terminate(subscription);
+      return;
+    }
+    if (!subscribed)
+      return;
+
+    final Throwable failed = failure.get();
+    if (failed != null) {
+      terminate(subscription);
+      subscriber.onError(failed);
+      return;
+    }
+
+    final long demand = requested.get();
+    while (emitted < demand) {
+      final Long amount = ordered ? slots.getAndSet((int) (emitted % parallelism), null) : amounts.poll();
+      if (amount == null)
+        break;
+      emitted++;
+      subscriber.onNext(amount);
+      if (cancelled) {
+        terminate(subscription);
+        return;
+      }
+    }
+
+    if (done && emitted == received) {
+      terminated = true;
+      if (upstreamError != null)
+        subscriber.onError(upstreamError);
+      else
+        subscriber.onComplete();
+      return;
+    }
+
+    final long limit = Math.min(emitted + parallelism, demand);
+    if (subscription != null && !done && limit > requestedUpstream) {
+      final long more = limit - requestedUpstream;
+      requestedUpstream = limit;
+      subscription.request(more);
+    }
+  }
+
+  private void terminate(final Flow.Subscription subscription) {
+    terminated = true;
+    if (subscription != null)
+      subscription.cancel();
+    if (ordered) {
+      for (int i = 0; i < parallelism; i++)
+        slots.set(i, null);
+    } else {
+      amounts.clear();
+    }
+  }
+}
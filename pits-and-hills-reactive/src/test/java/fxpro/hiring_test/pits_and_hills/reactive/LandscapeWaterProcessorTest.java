@@ -0,0 +1,331 @@
+package fxpro.hiring_test.pits_and_hills.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculator;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplTwoPointers;
+
+public class LandscapeWaterProcessorTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @ParameterizedTest(name = "{index} ordered {0}")
+  @ValueSource(booleans = { true, false })
+  public void givenPublishedLandscapes_whenRequestedInSmallBatches_thenEmitAmountOfEveryLandscape(boolean ordered)
+      throws Exception {
+
+    // given
+    final LandscapeWaterCalculator reference = new LandscapeWaterCalculatorImplTwoPointers();
+    final Random random = new Random(42);
+    final List<Long> expected = new ArrayList<>();
+    final List<int[]> landscapes = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      final int[] landscape = new int[random.nextInt(i % 100 == 0 ? 32_000 : 100)];
+      for (int column = 0; column < landscape.length; column++)
+        landscape[column] = random.nextInt(32_001);
+      landscapes.add(landscape);
+      expected.add(reference.calculateWaterAmount(landscape));
+    }
+    final LandscapeWaterProcessor processor = new LandscapeWaterProcessor(reference, executor, 8, ordered);
+    final CollectingSubscriber subscriber = new CollectingSubscriber(3);
+
+    // when
+    try (SubmissionPublisher<int[]> publisher = new SubmissionPublisher<>()) {
+      publisher.subscribe(processor);
+      processor.subscribe(subscriber);
+      for (final int[] landscape : landscapes)
+        publisher.submit(landscape);
+    }
+
+    // then
+    subscriber.completion.get(30, TimeUnit.SECONDS);
+    if (ordered) {
+      assertThat(subscriber.amounts)
+          .isEqualTo(expected);
+    } else {
+      assertThat(subscriber.amounts)
+          .containsExactlyInAnyOrderElementsOf(expected);
+    }
+  }
+
+  @Test
+  public void givenSubscriberDemand_whenProcess_thenRequestNoMoreFromUpstream() throws Exception {
+
+    // given
+    final CountingPublisher publisher = new CountingPublisher();
+    final LandscapeWaterProcessor processor = new LandscapeWaterProcessor(new LandscapeWaterCalculatorImplTwoPointers(),
+        executor, 8, true);
+    final CollectingSubscriber subscriber = new CollectingSubscriber(0);
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    // when
+    final long before = publisher.requested.get();
+    subscriber.subscription.request(3);
+    subscriber.received.await(3, 10, TimeUnit.SECONDS);
+    subscriber.subscription.request(100);
+
+    // then
+    assertThat(before)
+        .isZero();
+    subscriber.received.await(103, 10, TimeUnit.SECONDS);
+    assertThat(subscriber.amounts)
+        .hasSize(103)
+        .containsOnly(9L);
+    assertThat(publisher.requested.get())
+        .isLessThanOrEqualTo(103);
+  }
+
+  @Test
+  public void givenInvalidLandscape_whenProcess_thenSignalErrorAndCancelUpstream() throws Exception {
+
+    // given
+    final CountingPublisher publisher = new CountingPublisher();
+    publisher.invalidAt = 5;
+    final LandscapeWaterProcessor processor = new LandscapeWaterProcessor(new LandscapeWaterCalculatorImplTwoPointers(),
+        executor, 4, true);
+    final CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+    // when
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    // then
+    final Throwable thrown = subscriber.completion.handle((ignored, e) -> e).get(10, TimeUnit.SECONDS);
+    assertThat(thrown)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Wrong landscape height value '-1'");
+    assertThat(publisher.cancelled.await(10, TimeUnit.SECONDS))
+        .isTrue();
+  }
+
+  @Test
+  public void givenUpstreamCompletingDuringOnSubscribe_whenSubscribe_thenSignalOnSubscribeFirst() throws Exception {
+
+    // given
+    final LandscapeWaterProcessor processor = new LandscapeWaterProcessor(new LandscapeWaterCalculatorImplTwoPointers(),
+        executor, 4, true);
+    final List<String> signals = new ArrayList<>();
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CompletableFuture<Void> completion = new CompletableFuture<>();
+    final Thread subscribing = new Thread(() -> processor.subscribe(new Flow.Subscriber<Long>() {
+
+      @Override
+      public void onSubscribe(final Flow.Subscription subscription) {
+        entered.countDown();
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        synchronized (signals) {
+          signals.add("onSubscribe");
+        }
+      }
+
+      @Override
+      public void onNext(final Long amount) {
+        synchronized (signals) {
+          signals.add("onNext");
+        }
+      }
+
+      @Override
+      public void onError(final Throwable throwable) {
+        synchronized (signals) {
+          signals.add("onError");
+        }
+        completion.complete(null);
+      }
+
+      @Override
+      public void onComplete() {
+        synchronized (signals) {
+          signals.add("onComplete");
+        }
+        completion.complete(null);
+      }
+    }));
+    subscribing.start();
+    entered.await(10, TimeUnit.SECONDS);
+
+    // when
+    processor.onSubscribe(new Flow.Subscription() {
+
+      @Override
+      public void request(final long n) {
+      }
+
+      @Override
+      public void cancel() {
+      }
+    });
+    processor.onComplete();
+    release.countDown();
+
+    // then
+    completion.get(10, TimeUnit.SECONDS);
+    subscribing.join();
+    assertThat(signals)
+        .containsExactly("onSubscribe", "onComplete");
+  }
+
+  @Test
+  public void givenCalculatorThrowingError_whenProcess_thenSignalIt() throws Exception {
+
+    // given
+    final CountingPublisher publisher = new CountingPublisher();
+    final LandscapeWaterProcessor processor = new LandscapeWaterProcessor(landscape -> {
+      throw new StackOverflowError();
+    }, executor, 4, true);
+    final CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+    // when
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    // then
+    final Throwable thrown = subscriber.completion.handle((ignored, e) -> e).get(10, TimeUnit.SECONDS);
+    assertThat(thrown)
+        .isInstanceOf(StackOverflowError.class);
+    assertThat(publisher.cancelled.await(10, TimeUnit.SECONDS))
+        .isTrue();
+  }
+
+  @Test
+  public void givenSecondSubscriber_whenSubscribe_thenSignalIllegalStateException() throws Exception {
+
+    // given
+    final LandscapeWaterProcessor processor = new LandscapeWaterProcessor(new LandscapeWaterCalculatorImplTwoPointers(),
+        1, true);
+    processor.subscribe(new CollectingSubscriber(0));
+    final CollectingSubscriber second = new CollectingSubscriber(0);
+
+    // when
+    processor.subscribe(second);
+
+    // then
+    final Throwable thrown = second.completion.handle((ignored, e) -> e).get(10, TimeUnit.SECONDS);
+    assertThat(thrown)
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  /**
+   * Publishes the landscape variant from the task endlessly, synchronously
+   * within {@code request}, and counts the demand.
+   */
+  private static final class CountingPublisher implements Flow.Publisher<int[]> {
+
+    final AtomicLong requested = new AtomicLong();
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    long invalidAt = -1;
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super int[]> subscriber) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+
+        long sent;
+
+        @Override
+        public synchronized void request(final long n) {
+          requested.addAndGet(n);
+          for (long i = 0; i < n && cancelled.getCount() > 0; i++, sent++)
+            subscriber.onNext(sent == invalidAt ? new int[] { 1, -1, 1 } : new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+        }
+
+        @Override
+        public void cancel() {
+          cancelled.countDown();
+        }
+      });
+    }
+  }
+
+  private static final class CollectingSubscriber implements Flow.Subscriber<Long> {
+
+    final List<Long> amounts = new ArrayList<>();
+    final CompletableFuture<Void> completion = new CompletableFuture<>();
+    final Counter received = new Counter();
+    final long batch;
+    volatile Flow.Subscription subscription;
+    long outstanding;
+
+    /**
+     * @param batch number of amounts requested at once and again whenever
+     *              they are all received, 0 to request manually
+     */
+    CollectingSubscriber(final long batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (batch > 0) {
+        outstanding = batch;
+        subscription.request(batch);
+      }
+    }
+
+    @Override
+    public void onNext(final Long amount) {
+      synchronized (amounts) {
+        amounts.add(amount);
+      }
+      received.increment();
+      if (batch > 0 && batch != Long.MAX_VALUE && --outstanding == 0) {
+        outstanding = batch;
+        subscription.request(batch);
+      }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      completion.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      completion.complete(null);
+    }
+  }
+
+  private static final class Counter {
+
+    private long count;
+
+    synchronized void increment() {
+      count++;
+      notifyAll();
+    }
+
+    synchronized void await(final long expected, final long timeout, final TimeUnit unit) throws InterruptedException {
+      final long deadline = System.nanoTime() + unit.toNanos(timeout);
+      while (count < expected && System.nanoTime() < deadline)
+        wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+    }
+  }
+}
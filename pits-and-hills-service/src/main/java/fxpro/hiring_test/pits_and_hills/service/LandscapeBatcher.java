@@ -0,0 +1,126 @@
+package fxpro.hiring_test.pits_and_hills.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculator;
+
+/**
+ * Coalesces landscapes submitted by concurrent request handlers into batches.
+ * Each worker thread owns one calculator and, whenever it is idle, drains all
+ * landscapes queued meanwhile, so under load the calculator runs back to back
+ * on warm caches and scratch state instead of once per handler thread. No
+ * delay is added to wait for a batch to fill up.
+ */
+final class LandscapeBatcher implements AutoCloseable {
+
+  static final int DEFAULT_MAX_BATCH = 256;
+
+  private final BlockingQueue<Job> queue;
+  private final int maxBatch;
+  private final Thread[] workers;
+  private final LongAdder batches = new LongAdder();
+  private volatile boolean closed;
+
+  /**
+   * @param calculatorFactory called once per worker for its calculator, which
+   *                          is only shared if the factory returns a shared
+   *                          instance
+   * @param workers           number of worker threads
+   * @param capacity          max number of queued landscapes, beyond which
+   *                          submissions are rejected
+   * @param maxBatch          max number of landscapes taken at once
+   */
+  LandscapeBatcher(final Supplier<? extends LandscapeWaterCalculator> calculatorFactory, final int workers,
+      final int capacity, final int maxBatch) {
+    if (workers < 1)
+      throw new IllegalArgumentException("Wrong workers");
+    if (maxBatch < 1)
+      throw new IllegalArgumentException("Wrong max batch");
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.maxBatch = maxBatch;
+    this.workers = new Thread[workers];
+    for (int i = 0; i < workers; i++) {
+      final LandscapeWaterCalculator calculator = calculatorFactory.get();
+      this.workers[i] = new Thread(() -> work(calculator), "landscape-batcher-" + i);
+      this.workers[i].setDaemon(true);
+      this.workers[i].start();
+    }
+  }
+
+  /**
+   * @return amount of water, completed exceptionally with the exception of
+   *         the calculator, or with {@link RejectedExecutionException} if the
+   *         queue is full or the batcher is closed
+   */
+  CompletableFuture<Long> submit(final int[] landscape) {
+    final Job job = new Job(landscape);
+    if (closed) {
+      job.completeExceptionally(new RejectedExecutionException("Landscape batcher is closed"));
+    } else if (!queue.offer(job)) {
+      job.completeExceptionally(new RejectedExecutionException("Landscape queue is full"));
+    } else if (closed && queue.remove(job)) {
+      // closed meanwhile, and its final drain may have missed the job
+      job.completeExceptionally(new RejectedExecutionException("Landscape batcher is closed"));
+    }
+    return job;
+  }
+
+  long batchCount() {
+    return batches.sum();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    for (final Thread worker : workers)
+      worker.interrupt();
+    for (final Thread worker : workers) {
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    Job job;
+    while ((job = queue.poll()) != null)
+      job.completeExceptionally(new RejectedExecutionException("Landscape batcher is closed"));
+  }
+
+  private void work(final LandscapeWaterCalculator calculator) {
+    final List<Job> batch = new ArrayList<>(maxBatch);
+    while (!closed) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        continue;
+      }
+      queue.drainTo(batch, maxBatch - 1);
+      batches.increment();
+      for (final Job job : batch) {
+        try {
+          job.complete(calculator.calculateWaterAmount(job.landscape));
+        } catch (RuntimeException e) {
+          job.completeExceptionally(e);
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  private static final class Job extends CompletableFuture<Long> {
+
+    final int[] landscape;
+
+    Job(final int[] landscape) {
+      this.landscape = landscape;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package fxpro.hiring_test.pits_and_hills.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Landscape request and water amount response bodies.
+ * <p>
+ * Binary: the heights as big-endian 32-bit integers, answered with the amount
+ * as a big-endian 64-bit integer. JSON: an array of heights, either alone or
+ * as the {@code landscape} field of an object, answered with
+ * {@code {"waterAmount":<amount>}}.
+ */
+final class LandscapePayloads {
+
+  static final String BINARY = "application/octet-stream";
+  static final String JSON = "application/json";
+  static final String JSON_FIELD = "landscape";
+
+  private LandscapePayloads() {
+  }
+
+  static int[] decodeBinary(final byte[] body) {
+    if (body.length % Integer.BYTES != 0)
+      throw new IllegalArgumentException("Wrong landscape payload");
+    final int[] result = new int[body.length / Integer.BYTES];
+    ByteBuffer.wrap(body).asIntBuffer().get(result);
+    return result;
+  }
+
+  static byte[] encodeBinary(final int[] landscape) {
+    final ByteBuffer result = ByteBuffer.allocate(landscape.length * Integer.BYTES);
+    result.asIntBuffer().put(landscape);
+    return result.array();
+  }
+
+  static byte[] encodeBinary(final long waterAmount) {
+    return ByteBuffer.allocate(Long.BYTES).putLong(0, waterAmount).array();
+  }
+
+  static int[] decodeJson(final byte[] body) {
+    return new JsonReader(new String(body, StandardCharsets.UTF_8)).landscape();
+  }
+
+  static byte[] encodeJson(final long waterAmount) {
+    return ("{\"waterAmount\":" + waterAmount + "}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  static byte[] encodeJson(final int[] landscape) {
+    final StringBuilder result = new StringBuilder(landscape.length * 6 + 2).append('[');
+    for (int i = 0; i < landscape.length; i++) {
+      if (i > 0)
+        result.append(',');
+      result.append(landscape[i]);
+    }
+    return result.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Just enough JSON for {@code [1, 2]} and {@code {"landscape": [1, 2]}}.
+   */
+  private static final class JsonReader {
+
+    private final String text;
+    private int position;
+
+    JsonReader(final String text) {
+      this.text = text;
+    }
+
+    int[] landscape() {
+      final int[] result;
+      if (peek() == '{') {
+        position++;
+        expect('"');
+        final int start = position;
+        while (position < text.length() && text.charAt(position) != '"')
+          position++;
+        if (!text.substring(start, position).equals(JSON_FIELD))
+          throw wrongPayload();
+        position++;
+        expect(':');
+        result = array();
+        expect('}');
+      } else {
+        result = array();
+      }
+      if (peek() != -1)
+        throw wrongPayload();
+      return result;
+    }
+
+    private int[] array() {
+      expect('[');
+      int[] result = new int[16];
+      int size = 0;
+      if (peek() == ']') {
+        position++;
+        return new int[0];
+      }
+      while (true) {
+        if (size == result.length)
+          result = Arrays.copyOf(result, size * 2);
+        result[size++] = number();
+        final int next = peek();
+        position++;
+        if (next == ']')
+          return Arrays.copyOf(result, size);
+        if (next != ',')
+          throw wrongPayload();
+      }
+    }
+
+    private int number() {
+      peek();
+      final int start = position;
+      if (position < text.length() && text.charAt(position) == '-')
+        position++;
+      while (position < text.length() && Character.isDigit(text.charAt(position)))
+        position++;
+      try {
+        return Integer.parseInt(text.substring(start, position));
+      } catch (NumberFormatException e) {
+        throw wrongPayload();
+      }
+    }
+
+    private void expect(final char expected) {
+      if (peek() != expected)
+        throw wrongPayload();
+      position++;
+    }
+
+    /**
+     * @return next character after whitespace, -1 at the end
+     */
+    private int peek() {
+      while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+        position++;
+      return position < text.length() ? text.charAt(position) : -1;
+    }
+
+    private static IllegalArgumentException wrongPayload() {
+      return new IllegalArgumentException("Wrong landscape payload");
+    }
+  }
+}
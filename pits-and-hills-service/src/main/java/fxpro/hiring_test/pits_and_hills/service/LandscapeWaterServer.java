@@ -0,0 +1,238 @@
+package fxpro.hiring_test.pits_and_hills.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import fxpro.hiring_test.pits_and_hills.InstrumentedLandscapeWaterCalculator;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculator;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculators;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterMetrics;
+
+/**
+ * HTTP front of {@link LandscapeWaterCalculator} on the JDK built-in server.
+ * <p>
+ * {@code POST /water} takes a landscape in one of the formats of
+ * {@link LandscapePayloads}, chosen by the {@code Content-Type} header, and
+ * answers in the same format. Invalid landscapes are answered with 400 and the
+ * message of the calculator; a full queue, a full handler pool and an amount
+ * not calculated within {@value #RESPONSE_TIMEOUT_SECONDS} seconds with 503.
+ * <p>
+ * Requests are handled on virtual threads when the JDK has them, otherwise on
+ * a bounded pool, and their landscapes are calculated in micro-batches by a
+ * {@link LandscapeBatcher}. Calls are recorded in {@link #metrics()}.
+ * <p>
+ * When embedding the server, set {@code -Dsun.net.httpserver.nodelay=true}:
+ * without it every answer waits for a delayed ACK, tens of milliseconds.
+ * {@link #main(String[])} sets it unless configured otherwise.
+ */
+public class LandscapeWaterServer implements AutoCloseable {
+
+  static final String PATH = "/water";
+  static final int DEFAULT_PORT = 8080;
+  static final int INITIAL_BODY_BYTES = 1 << 12;
+  static final int MAX_BODY_BYTES = 1 << 20;
+  static final int QUEUE_CAPACITY = 1 << 14;
+  static final int STOP_DELAY_SECONDS = 1;
+  static final int RESPONSE_TIMEOUT_SECONDS = 30;
+  static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+  private final HttpServer server;
+  private final ExecutorService handlers;
+  private final LandscapeBatcher batcher;
+  private final LandscapeWaterMetrics metrics = new LandscapeWaterMetrics();
+
+  /**
+   * @param address           to listen on, port 0 for any free port
+   * @param calculatorFactory called once per batch worker for its calculator
+   * @param workers           number of batch workers
+   */
+  public LandscapeWaterServer(final InetSocketAddress address,
+      final Supplier<? extends LandscapeWaterCalculator> calculatorFactory, final int workers) throws IOException {
+    this.batcher = new LandscapeBatcher(
+        () -> new InstrumentedLandscapeWaterCalculator(calculatorFactory.get(), metrics), workers,
+        QUEUE_CAPACITY, LandscapeBatcher.DEFAULT_MAX_BATCH);
+    this.handlers = handlerExecutor();
+    this.server = HttpServer.create(address, 0);
+    this.server.setExecutor(handlers);
+    this.server.createContext(PATH, this::handle);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public InetSocketAddress address() {
+    return server.getAddress();
+  }
+
+  public LandscapeWaterMetrics metrics() {
+    return metrics;
+  }
+
+  @Override
+  public void close() {
+    server.stop(STOP_DELAY_SECONDS);
+    handlers.shutdown();
+    batcher.close();
+  }
+
+  /**
+   * Usage: {@code LandscapeWaterServer [port] [workers]}
+   */
+  public static void main(final String[] args) throws Exception {
+    // small responses otherwise wait for the client's delayed ACK
+    if (System.getProperty(NO_DELAY_PROPERTY) == null)
+      System.setProperty(NO_DELAY_PROPERTY, "true");
+    final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    final int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    // calibrated once before listening, then every worker owns its engines
+    final int vectorThreshold = LandscapeWaterCalculators.vectorThreshold();
+    final LandscapeWaterServer server = new LandscapeWaterServer(new InetSocketAddress(port),
+        () -> LandscapeWaterCalculators.adaptive(vectorThreshold), workers);
+    server.metrics().register("service");
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    server.start();
+    System.out.println("Listening on http://localhost:" + server.address().getPort() + PATH);
+  }
+
+  /**
+   * Virtual threads are looked up reflectively as the module targets Java 8.
+   */
+  static ExecutorService handlerExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      final int threads = 4 * Runtime.getRuntime().availableProcessors();
+      return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(QUEUE_CAPACITY), new Overloaded());
+    }
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    try {
+      if (Overloaded.REJECTED.get() != null) {
+        respond(exchange, HttpURLConnection.HTTP_UNAVAILABLE, "Server is overloaded");
+        return;
+      }
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        respond(exchange, HttpURLConnection.HTTP_BAD_METHOD, "Only POST is supported");
+        return;
+      }
+      final String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+      final boolean json;
+      if (contentType != null && contentType.startsWith(LandscapePayloads.JSON))
+        json = true;
+      else if (contentType != null && contentType.startsWith(LandscapePayloads.BINARY))
+        json = false;
+      else {
+        respond(exchange, HttpURLConnection.HTTP_UNSUPPORTED_TYPE, "Wrong content type");
+        return;
+      }
+
+      final byte[] body = read(exchange.getRequestBody());
+      if (body == null) {
+        respond(exchange, HttpURLConnection.HTTP_ENTITY_TOO_LARGE, "Wrong landscape payload");
+        return;
+      }
+
+      final long waterAmount;
+      try {
+        final int[] landscape = json ? LandscapePayloads.decodeJson(body) : LandscapePayloads.decodeBinary(body);
+        waterAmount = batcher.submit(landscape).get(RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (IllegalArgumentException e) {
+        respond(exchange, HttpURLConnection.HTTP_BAD_REQUEST, e.getMessage());
+        return;
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IllegalArgumentException)
+          respond(exchange, HttpURLConnection.HTTP_BAD_REQUEST, e.getCause().getMessage());
+        else if (e.getCause() instanceof RejectedExecutionException)
+          respond(exchange, HttpURLConnection.HTTP_UNAVAILABLE, e.getCause().getMessage());
+        else
+          respond(exchange, HttpURLConnection.HTTP_INTERNAL_ERROR, String.valueOf(e.getCause()));
+        return;
+      } catch (TimeoutException e) {
+        respond(exchange, HttpURLConnection.HTTP_UNAVAILABLE, "Landscape calculation timed out");
+        return;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        respond(exchange, HttpURLConnection.HTTP_UNAVAILABLE, "Interrupted");
+        return;
+      }
+
+      final byte[] response = json ? LandscapePayloads.encodeJson(waterAmount)
+          : LandscapePayloads.encodeBinary(waterAmount);
+      exchange.getResponseHeaders().set("Content-Type", json ? LandscapePayloads.JSON : LandscapePayloads.BINARY);
+      exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.length);
+      try (OutputStream output = exchange.getResponseBody()) {
+        output.write(response);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * @return the whole body, null if it is longer than {@value #MAX_BODY_BYTES}
+   */
+  private static byte[] read(final InputStream input) throws IOException {
+    byte[] body = new byte[INITIAL_BODY_BYTES];
+    int length = 0;
+    int read;
+    while ((read = input.read(body, length, body.length - length)) != -1) {
+      length += read;
+      if (length == body.length) {
+        if (length > MAX_BODY_BYTES)
+          return null;
+        body = Arrays.copyOf(body, Math.min(2 * length, MAX_BODY_BYTES + 1));
+      }
+    }
+    return length == body.length ? body : Arrays.copyOf(body, length);
+  }
+
+  private static void respond(final HttpExchange exchange, final int status, final String message)
+      throws IOException {
+    final byte[] response = message.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, response.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(response);
+    }
+  }
+
+  /**
+   * Answers the exchanges the handler pool rejects with 503 right on the
+   * server dispatcher thread, which must never wait for a calculation.
+   */
+  static final class Overloaded implements RejectedExecutionHandler {
+
+    static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+
+    @Override
+    public void rejectedExecution(final Runnable exchange, final ThreadPoolExecutor executor) {
+      REJECTED.set(Boolean.TRUE);
+      try {
+        exchange.run();
+      } finally {
+        REJECTED.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package fxpro.hiring_test.pits_and_hills.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import fxpro.hiring_test.pits_and_hills.LogLinearHistogram;
+
+/**
+ * Closed-loop load against a {@link LandscapeWaterServer}: every thread posts
+ * a random landscape, waits for the answer and posts again, over kept-alive
+ * connections. Reports throughput and the latency distribution.
+ */
+public class LoadGenerator {
+
+  static final int MAX_HEIGHT = 32_000;
+
+  private final URL url;
+  private final boolean json;
+  private final int threads;
+  private final int length;
+
+  /**
+   * @param url     of the {@code /water} endpoint
+   * @param json    whether to send JSON rather than binary payloads
+   * @param threads number of concurrent clients
+   * @param length  landscape length
+   */
+  public LoadGenerator(final URL url, final boolean json, final int threads, final int length) {
+    if (threads < 1)
+      throw new IllegalArgumentException("Wrong threads");
+    this.url = url;
+    this.json = json;
+    this.threads = threads;
+    this.length = length;
+  }
+
+  public Report run(final long duration, final TimeUnit unit) throws InterruptedException {
+    final LogLinearHistogram latencies = new LogLinearHistogram();
+    final LongAdder errors = new LongAdder();
+    final long deadline = System.nanoTime() + unit.toNanos(duration);
+    final Thread[] clients = new Thread[threads];
+    final long start = System.nanoTime();
+    for (int t = 0; t < threads; t++) {
+      final byte[] payload = payload(new Random(t));
+      clients[t] = new Thread(() -> {
+        final byte[] response = new byte[256];
+        while (System.nanoTime() < deadline) {
+          final long requestStart = System.nanoTime();
+          try {
+            if (post(payload, response) == HttpURLConnection.HTTP_OK)
+              latencies.record(System.nanoTime() - requestStart);
+            else
+              errors.increment();
+          } catch (IOException e) {
+            errors.increment();
+          }
+        }
+      }, "load-generator-" + t);
+      clients[t].start();
+    }
+    for (final Thread client : clients)
+      client.join();
+    return new Report(latencies.snapshot(), errors.sum(), System.nanoTime() - start);
+  }
+
+  /**
+   * Usage: {@code LoadGenerator url [threads] [seconds] [length] [binary|json]}
+   */
+  public static void main(final String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: LoadGenerator url [threads] [seconds] [length] [binary|json]");
+      System.exit(1);
+    }
+    final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    final int length = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+    final boolean json = args.length > 4 && "json".equals(args[4]);
+    final Report report = new LoadGenerator(new URL(args[0]), json, threads, length).run(seconds, TimeUnit.SECONDS);
+    System.out.println(report);
+  }
+
+  private byte[] payload(final Random random) {
+    final int[] landscape = new int[length];
+    for (int column = 0; column < length; column++)
+      landscape[column] = random.nextInt(MAX_HEIGHT + 1);
+    return json ? LandscapePayloads.encodeJson(landscape) : LandscapePayloads.encodeBinary(landscape);
+  }
+
+  private int post(final byte[] payload, final byte[] response) throws IOException {
+    final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setFixedLengthStreamingMode(payload.length);
+    connection.setRequestProperty("Content-Type", json ? LandscapePayloads.JSON : LandscapePayloads.BINARY);
+    try (OutputStream output = connection.getOutputStream()) {
+      output.write(payload);
+    }
+    final int status = connection.getResponseCode();
+    // the body must be read to the end for the connection to be reused
+    try (InputStream input = status == HttpURLConnection.HTTP_OK ? connection.getInputStream()
+        : connection.getErrorStream()) {
+      if (input != null)
+        while (input.read(response) != -1) {
+          // discard
+        }
+    }
+    return status;
+  }
+
+  /**
+   * Outcome of {@link LoadGenerator#run(long, TimeUnit)}.
+   */
+  public static final class Report {
+
+    private final LogLinearHistogram.Snapshot latencies;
+    private final long errors;
+    private final long elapsedNanos;
+
+    Report(final LogLinearHistogram.Snapshot latencies, final long errors, final long elapsedNanos) {
+      this.latencies = latencies;
+      this.errors = errors;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public long requests() {
+      return latencies.count();
+    }
+
+    public long errors() {
+      return errors;
+    }
+
+    public double requestsPerSecond() {
+      return requests() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public LogLinearHistogram.Snapshot latencyNanos() {
+      return latencies;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("requests %d, errors %d, %.0f req/s, latency us p50 %.1f p99 %.1f p999 %.1f max %.1f",
+          requests(), errors, requestsPerSecond(), latencies.percentile(50) / 1e3, latencies.percentile(99) / 1e3,
+          latencies.percentile(99.9) / 1e3, latencies.max() / 1e3);
+    }
+  }
+}
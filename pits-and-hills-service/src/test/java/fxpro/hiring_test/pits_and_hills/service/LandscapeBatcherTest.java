@@ -0,0 +1,99 @@
+package fxpro.hiring_test.pits_and_hills.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculator;
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplTwoPointers;
+
+public class LandscapeBatcherTest {
+
+  @Test
+  public void givenWorkers_whenCreate_thenCreateCalculatorPerWorker() {
+
+    // given
+    final List<LandscapeWaterCalculator> calculators = new ArrayList<>();
+
+    // when
+    try (LandscapeBatcher batcher = new LandscapeBatcher(() -> {
+      final LandscapeWaterCalculator calculator = new LandscapeWaterCalculatorImplTwoPointers();
+      calculators.add(calculator);
+      return calculator;
+    }, 3, 16, LandscapeBatcher.DEFAULT_MAX_BATCH)) {
+
+      // then
+      assertThat(calculators)
+          .hasSize(3)
+          .doesNotHaveDuplicates();
+    }
+  }
+
+  @Test
+  public void givenClosedBatcher_whenSubmit_thenRejectAsClosed() {
+
+    // given
+    final LandscapeBatcher batcher = new LandscapeBatcher(LandscapeWaterCalculatorImplTwoPointers::new, 1, 16,
+        LandscapeBatcher.DEFAULT_MAX_BATCH);
+    batcher.close();
+
+    // when
+    final CompletableFuture<Long> amount = batcher.submit(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 });
+
+    // then
+    final Throwable thrown = amount.handle((ignored, e) -> e).join();
+    assertThat(thrown)
+        .isInstanceOf(RejectedExecutionException.class)
+        .hasMessage("Landscape batcher is closed");
+  }
+
+  @Test
+  public void givenSubmissionsRacingClose_whenClose_thenCompleteEveryJob() throws InterruptedException {
+
+    for (int round = 0; round < 50; round++) {
+
+      // given
+      final LandscapeBatcher batcher = new LandscapeBatcher(LandscapeWaterCalculatorImplTwoPointers::new, 2, 1 << 10,
+          LandscapeBatcher.DEFAULT_MAX_BATCH);
+      final List<CompletableFuture<Long>> amounts = new ArrayList<>();
+      final Thread[] submitters = new Thread[4];
+      for (int t = 0; t < submitters.length; t++) {
+        submitters[t] = new Thread(() -> {
+          final List<CompletableFuture<Long>> submitted = new ArrayList<>();
+          for (int i = 0; i < 1_000; i++)
+            submitted.add(batcher.submit(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 }));
+          synchronized (amounts) {
+            amounts.addAll(submitted);
+          }
+        });
+        submitters[t].start();
+      }
+
+      // when
+      batcher.close();
+      for (final Thread submitter : submitters)
+        submitter.join();
+
+      // then
+      for (final CompletableFuture<Long> amount : amounts) {
+        try {
+          assertThat(amount.get(10, TimeUnit.SECONDS))
+              .isEqualTo(9);
+        } catch (ExecutionException e) {
+          assertThat(e.getCause())
+              .isInstanceOf(RejectedExecutionException.class);
+        } catch (TimeoutException e) {
+          throw new AssertionError("Job never completed", e);
+        }
+      }
+    }
+  }
+}
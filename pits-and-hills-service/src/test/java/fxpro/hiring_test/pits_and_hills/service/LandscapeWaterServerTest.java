@@ -0,0 +1,136 @@
+package fxpro.hiring_test.pits_and_hills.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fxpro.hiring_test.pits_and_hills.LandscapeWaterCalculatorImplTwoPointers;
+
+public class LandscapeWaterServerTest {
+
+  private LandscapeWaterServer server;
+  private URL url;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server = new LandscapeWaterServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        LandscapeWaterCalculatorImplTwoPointers::new, 2);
+    server.start();
+    url = new URL("http://localhost:" + server.address().getPort() + LandscapeWaterServer.PATH);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void givenJsonLandscape_whenPost_thenReturnJsonAmount() throws IOException {
+
+    // when
+    final Response response = post(LandscapePayloads.JSON,
+        "{ \"landscape\": [5, 2, 3, 4, 5, 4, 0, 3, 1] }".getBytes(StandardCharsets.UTF_8));
+
+    // then
+    assertThat(response.status)
+        .isEqualTo(HttpURLConnection.HTTP_OK);
+    assertThat(new String(response.body, StandardCharsets.UTF_8))
+        .isEqualTo("{\"waterAmount\":9}");
+  }
+
+  @Test
+  public void givenBinaryLandscape_whenPost_thenReturnBinaryAmount() throws IOException {
+
+    // when
+    final Response response = post(LandscapePayloads.BINARY,
+        LandscapePayloads.encodeBinary(new int[] { 5, 2, 3, 4, 5, 4, 0, 3, 1 }));
+
+    // then
+    assertThat(response.status)
+        .isEqualTo(HttpURLConnection.HTTP_OK);
+    assertThat(ByteBuffer.wrap(response.body).getLong())
+        .isEqualTo(9);
+  }
+
+  @Test
+  public void givenInvalidLandscapes_whenPost_thenReturnBadRequest() throws IOException {
+
+    // when
+    final Response negative = post(LandscapePayloads.JSON, "[1, -1, 1]".getBytes(StandardCharsets.UTF_8));
+    final Response malformed = post(LandscapePayloads.JSON, "[1, 2".getBytes(StandardCharsets.UTF_8));
+    final Response truncated = post(LandscapePayloads.BINARY, new byte[] { 0, 0, 0, 1, 0 });
+
+    // then
+    assertThat(negative.status)
+        .isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+    assertThat(new String(negative.body, StandardCharsets.UTF_8))
+        .isEqualTo("Wrong landscape height value '-1'");
+    assertThat(malformed.status)
+        .isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+    assertThat(truncated.status)
+        .isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+    assertThat(server.metrics().snapshot().rejectedCalls())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void givenLoadGenerator_whenRun_thenAnswerEveryRequestInBatches() throws InterruptedException {
+
+    // when
+    final LoadGenerator.Report report = new LoadGenerator(url, false, 8, 1000).run(1, TimeUnit.SECONDS);
+
+    // then
+    assertThat(report.errors())
+        .isZero();
+    assertThat(report.requests())
+        .isPositive()
+        .isEqualTo(server.metrics().snapshot().calls());
+    assertThat(report.latencyNanos().percentile(99))
+        .isPositive();
+  }
+
+  private Response post(final String contentType, final byte[] payload) throws IOException {
+    final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setRequestProperty("Content-Type", contentType);
+    try (OutputStream output = connection.getOutputStream()) {
+      output.write(payload);
+    }
+    final int status = connection.getResponseCode();
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (InputStream input = status == HttpURLConnection.HTTP_OK ? connection.getInputStream()
+        : connection.getErrorStream()) {
+      final byte[] buffer = new byte[256];
+      int read;
+      while ((read = input.read(buffer)) != -1)
+        body.write(buffer, 0, read);
+    }
+    return new Response(status, body.toByteArray());
+  }
+
+  private static final class Response {
+
+    final int status;
+    final byte[] body;
+
+    Response(final int status, final byte[] body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+}